@@ -1,8 +1,27 @@
 package org.example;
 
+import org.example.catalog.Catalog;
+import org.example.export.ColumnarRunExporter;
+import org.example.storage.LocalSaveStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
 public class Main {
     public static void main(String[] args) {
-        VillageInput village = new VillageInput();
+        // -Dvillage.incrementalSaves=true saves each village as a chain of deltas instead of a whole new file.
+        LocalSaveStore saves = new LocalSaveStore(Path.of(System.getProperty("village.saves", "saves")), Catalog.getDefault(), 64,
+                Boolean.getBoolean("village.incrementalSaves"));
+        VillageInput village = new VillageInput(new Village(), saves);
+        // -Dvillage.export=run.votc streams every day of the game to a columnar file for offline analysis.
+        String export = System.getProperty("village.export");
+        if (export != null) {
+            try {
+                village.setExporter(new ColumnarRunExporter(Path.of(export)));
+            } catch (IOException e) {
+                System.out.println("Could not open " + export + " for export: " + e.getMessage());
+            }
+        }
         village.Run();
     }
 }
\ No newline at end of file
@@ -0,0 +1,130 @@
+package org.example;
+
+import org.example.catalog.Catalog;
+import org.example.catalog.Occupation;
+import org.example.objects.PossibleProject;
+import org.example.objects.Worker;
+
+import java.util.HashMap;
+
+// Estimates, for every possible project, how many days until the village can afford it and until it would be
+// built, at the current rates and assuming every living worker keeps working each day.
+// Estimates are stored as target days rather than day counts. While the village produces exactly what the
+// estimate assumed, the targets stay valid as days pass and answering is a subtraction. Anything that breaks
+// the assumption (hiring, deaths, hungry workers, finished projects, spending, setters) marks the estimate
+// dirty and the next question recomputes it.
+public class ProjectEstimator {
+    public static final int NEVER = -1;
+
+    private final PossibleProject[] projects;
+    private final HashMap<String, Integer> index = new HashMap<>();
+    private final int[] affordableDay;
+    private final int[] builtDay;
+    private final int[] workers = new int[4];
+    private boolean dirty = true;
+
+    public ProjectEstimator(Catalog catalog) {
+        projects = catalog.getProjects().values().toArray(new PossibleProject[0]);
+        for (int i = 0; i < projects.length; i++) {
+            index.put(projects[i].getName(), i);
+        }
+        affordableDay = new int[projects.length];
+        builtDay = new int[projects.length];
+    }
+
+    public void Invalidate() {
+        dirty = true;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    // Called at the end of a day with how many workers of each produces code worked. If that is not every living
+    // worker, production fell short of the estimate.
+    void CheckDay(int[] worked) {
+        if (!dirty && (worked[Occupation.WOOD] != workers[Occupation.WOOD] || worked[Occupation.METAL] != workers[Occupation.METAL]
+                || worked[Occupation.BUILD] != workers[Occupation.BUILD])) {
+            dirty = true;
+        }
+    }
+
+    // Days until the project is affordable, 0 if it is now, or NEVER if nobody produces what it needs.
+    public int DaysUntilAffordable(Village village, String project) {
+        return Remaining(village, affordableDay, project);
+    }
+
+    // Days until the project would be finished if it were queued as soon as it is affordable, or NEVER.
+    public int DaysUntilBuilt(Village village, String project) {
+        return Remaining(village, builtDay, project);
+    }
+
+    private int Remaining(Village village, int[] targets, String project) {
+        Integer i = index.get(project);
+        if (i == null) {
+            return NEVER;
+        }
+        if (dirty) {
+            Recompute(village);
+        }
+        int target = targets[i];
+        return target == NEVER ? NEVER : Math.max(0, target - village.getDaysGone());
+    }
+
+    private void Recompute(Village village) {
+        workers[Occupation.FOOD] = 0;
+        workers[Occupation.WOOD] = 0;
+        workers[Occupation.METAL] = 0;
+        workers[Occupation.BUILD] = 0;
+        for (int i = 0; i < village.getWorkers().size(); i++) {
+            Worker worker = village.getWorkers().get(i);
+            int produces = worker.getProduces();
+            if (worker.isAlive() && produces >= 0 && produces < workers.length) {
+                workers[produces]++;
+            }
+        }
+        long woodRate = (long) workers[Occupation.WOOD] * village.getWoodPerDay();
+        long metalRate = (long) workers[Occupation.METAL] * village.getMetalPerDay();
+        int builders = workers[Occupation.BUILD];
+        long queued = 0;
+        for (int i = 0; i < village.getProjects().size(); i++) {
+            queued += Math.max(0, village.getProjects().get(i).getDaysLeft());
+        }
+        long queueDays = builders == 0 ? 0 : CeilDiv(queued, builders);
+
+        int today = village.getDaysGone();
+        for (int i = 0; i < projects.length; i++) {
+            long wood = DaysToReach(projects[i].getWoodCost() - (long) village.getWood(), woodRate);
+            long metal = DaysToReach(projects[i].getMetalCost() - (long) village.getMetal(), metalRate);
+            if (wood == NEVER || metal == NEVER) {
+                affordableDay[i] = NEVER;
+                builtDay[i] = NEVER;
+                continue;
+            }
+            long affordable = Math.max(wood, metal);
+            affordableDay[i] = Target(today, affordable);
+            if (builders == 0) {
+                builtDay[i] = NEVER;
+            } else {
+                builtDay[i] = Target(today, Math.max(affordable, queueDays) + CeilDiv(projects[i].getDaysToComplete(), builders));
+            }
+        }
+        dirty = false;
+    }
+
+    private static long DaysToReach(long missing, long perDay) {
+        if (missing <= 0) {
+            return 0;
+        }
+        return perDay <= 0 ? NEVER : CeilDiv(missing, perDay);
+    }
+
+    private static long CeilDiv(long a, long b) {
+        return (a + b - 1) / b;
+    }
+
+    private static int Target(int today, long days) {
+        long target = today + days;
+        return target > Integer.MAX_VALUE ? NEVER : (int) target;
+    }
+}
@@ -0,0 +1,133 @@
+package org.example;
+
+import org.example.catalog.Occupation;
+import org.example.objects.PossibleProject;
+import org.example.objects.Project;
+import org.example.objects.Worker;
+
+import java.util.concurrent.locks.StampedLock;
+
+// Where a village publishes its status for other threads: a seqlock over plain fields.
+// Publish is called by the thread running the village and allocates nothing. Read copies the fields under an
+// optimistic stamp and retries if a publish overlapped, so readers never block the village and never see half
+// of one publish mixed with another. Only after repeated overlaps does a reader wait for the publish to finish.
+public class StatusBoard {
+    private final StampedLock lock = new StampedLock();
+    private int day;
+    private boolean gameOver;
+    private int food;
+    private int wood;
+    private int metal;
+    private int workers;
+    private int alive;
+    private int hungry;
+    private int maxWorkers;
+    private final int[] aliveByProduces = new int[4];
+    private int buildings;
+    private int projects;
+    private String headProject;
+    private int headDaysLeft;
+    private int headDaysTotal;
+    // The template length of the last head project looked up, so a day with the same head skips the catalog.
+    private String totalFor;
+    private int totalDays;
+    private final int[] counted = new int[4];
+
+    // Counts the living workers itself, for when the village has not just done so in Day.
+    void Publish(Village village) {
+        int aliveCount = 0;
+        int hungryCount = 0;
+        for (int i = 0; i < counted.length; i++) {
+            counted[i] = 0;
+        }
+        for (int i = 0; i < village.getWorkers().size(); i++) {
+            Worker worker = village.getWorkers().get(i);
+            if (worker.isAlive()) {
+                aliveCount++;
+                if (worker.getDaysHungry() > 0) {
+                    hungryCount++;
+                }
+                if (worker.getProduces() >= 0 && worker.getProduces() < counted.length) {
+                    counted[worker.getProduces()]++;
+                }
+            }
+        }
+        Publish(village, aliveCount, hungryCount, counted);
+    }
+
+    // Everything is gathered before taking the stamp, so the write only covers the stores and readers retry less.
+    // Day passes the counts from its own pass over the workers, so a day walks them once.
+    void Publish(Village village, int aliveCount, int hungryCount, int[] aliveNow) {
+        int workerCount = village.getWorkers().size();
+        int projectCount = village.getProjects().size();
+        String head = null;
+        int daysLeft = 0;
+        int daysTotal = 0;
+        if (projectCount > 0) {
+            Project project = village.getProjects().get(0);
+            head = project.getName();
+            daysLeft = project.getDaysLeft();
+            if (head != totalFor) {
+                PossibleProject template = village.getCatalog().getProjects().get(head);
+                totalFor = template == null ? null : head;
+                totalDays = template == null ? daysLeft : template.getDaysToComplete();
+            }
+            daysTotal = totalFor == null ? daysLeft : totalDays;
+        }
+        int daysGone = village.getDaysGone();
+        boolean over = village.isGameOver();
+        int foodNow = village.getFood();
+        int woodNow = village.getWood();
+        int metalNow = village.getMetal();
+        int maxWorkersNow = village.getMaxWorkers();
+        int buildingCount = village.getBuildings().size();
+
+        long stamp = lock.writeLock();
+        try {
+            day = daysGone;
+            gameOver = over;
+            food = foodNow;
+            wood = woodNow;
+            metal = metalNow;
+            workers = workerCount;
+            maxWorkers = maxWorkersNow;
+            alive = aliveCount;
+            hungry = hungryCount;
+            aliveByProduces[Occupation.FOOD] = aliveNow[Occupation.FOOD];
+            aliveByProduces[Occupation.WOOD] = aliveNow[Occupation.WOOD];
+            aliveByProduces[Occupation.METAL] = aliveNow[Occupation.METAL];
+            aliveByProduces[Occupation.BUILD] = aliveNow[Occupation.BUILD];
+            buildings = buildingCount;
+            projects = projectCount;
+            headProject = head;
+            headDaysLeft = daysLeft;
+            headDaysTotal = daysTotal;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public VillageStatus Read() {
+        for (int attempt = 0; attempt < 4; attempt++) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                VillageStatus status = Copy();
+                if (lock.validate(stamp)) {
+                    return status;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        long stamp = lock.readLock();
+        try {
+            return Copy();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private VillageStatus Copy() {
+        return new VillageStatus(day, gameOver, food, wood, metal, workers, alive, hungry, maxWorkers,
+                aliveByProduces.clone(), buildings, projects, headProject, headDaysLeft, headDaysTotal);
+    }
+}
@@ -1,15 +1,21 @@
 package org.example;
 
-import org.example.interfaces.IOccupationAction;
+import org.example.catalog.Catalog;
+import org.example.catalog.Effect;
+import org.example.catalog.Occupation;
+import org.example.interfaces.IEffectTarget;
+import org.example.interfaces.IVillageListener;
+import org.example.jfr.DayPhaseEvent;
 import org.example.objects.Building;
 import org.example.objects.PossibleProject;
 import org.example.objects.Project;
 import org.example.objects.Worker;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
-public class Village {
+public class Village implements IEffectTarget {
 
     private boolean gameOver = false;
     private int food = 0;
@@ -18,13 +24,23 @@ public class Village {
     private ArrayList<Worker> workers = new ArrayList<>();
     private ArrayList<Building> buildings = new ArrayList<>();
     private ArrayList<Project> projects = new ArrayList<>();
-    private final HashMap<String, IOccupationAction> occupationHashMap = new HashMap<>();
-    private final HashMap<String, PossibleProject> possibleProjects = new HashMap<>();
+    private final ArrayList<Worker> spareWorkers = new ArrayList<>();
+    private final ArrayList<Project> spareProjects = new ArrayList<>();
+    private final Catalog catalog;
     private int metalPerDay = 1;
     private int woodPerDay = 1;
     private int foodPerDay = 5;
     private int maxWorkers = 0;
     private int daysGone = 0;
+    private int workersHired = 0;
+    private boolean quiet = false;
+    private int completedSinceLastDay = 0;
+    private final VillageHistory history = new VillageHistory(128, 16, 64);
+    private final ArrayList<IVillageListener> listeners = new ArrayList<>();
+    private final ProjectEstimator estimator;
+    private final int[] workedToday = new int[4];
+    private final int[] aliveToday = new int[4];
+    private final StatusBoard statusBoard = new StatusBoard();
 
     public Village(boolean gameOver, int food, int wood, int metal, ArrayList<Worker> workers, ArrayList<Building> buildings, ArrayList<Project> projects, int metalPerDay, int woodPerDay, int foodPerDay, int maxWorkers, int daysGone, int daysUntilStarvation) {
         this();
@@ -41,40 +57,139 @@ public class Village {
         this.maxWorkers = maxWorkers;
         this.daysGone = daysGone;
         Worker.daysUntilStarvation = daysUntilStarvation;
+        statusBoard.Publish(this);
     }
 
     public Village() {
-        occupationHashMap.put("farmer", name -> AddFood(name));
-        occupationHashMap.put("lumberjack", name -> AddWood(name));
-        occupationHashMap.put("miner", name -> AddMetal(name));
-        occupationHashMap.put("builder", name -> Build(name));
-
-        possibleProjects.put("House", new PossibleProject("House", 5,0,3, () -> NewHouse()));
-        possibleProjects.put("Woodmill", new PossibleProject("Woodmill", 5,1,5, () -> NewWoodmill()));
-        possibleProjects.put("Quarry", new PossibleProject("Quarry", 3,5,7, () -> NewQuarry()));
-        possibleProjects.put("Farm", new PossibleProject("Farm", 5,2,5, () -> NewFarm()));
-        possibleProjects.put("Castle", new PossibleProject("Castle", 50,50,50, () -> NewCastle()));
-
-        buildings.add(new Building("House"));
-        buildings.add(new Building("House"));
-        buildings.add(new Building("House"));
-        maxWorkers = 6;
+        this(Catalog.getDefault());
+    }
+
+    public Village(Catalog catalog) {
+        this.catalog = catalog;
+        estimator = new ProjectEstimator(catalog);
+        Reset();
+    }
+
+    // Puts the village back into its starting state. The lists keep their backing arrays, and workers and
+    // projects are kept aside to be reused by AddWorker and AddProject, so a recycled village allocates
+    // almost nothing. Nothing outside the village may still hold on to its lists, workers or projects.
+    public void Reset() {
+        for (int i = 0; i < workers.size(); i++) {
+            spareWorkers.add(workers.get(i));
+        }
+        for (int i = 0; i < projects.size(); i++) {
+            spareProjects.add(projects.get(i));
+        }
+        workers.clear();
+        projects.clear();
+        buildings.clear();
+
+        Building house = catalog.getBuilding("House");
+        buildings.add(house);
+        buildings.add(house);
+        buildings.add(house);
+        gameOver = false;
         food = 10;
+        wood = 0;
+        metal = 0;
+        metalPerDay = 1;
+        woodPerDay = 1;
+        foodPerDay = 5;
+        maxWorkers = 6;
+        daysGone = 0;
+        workersHired = 0;
+        completedSinceLastDay = 0;
+        history.Clear();
+        listeners.clear();
+        estimator.Invalidate();
+        statusBoard.Publish(this);
     }
     public void Day() {
+        DayPhaseEvent feedPhase = DayPhaseEvent.Start("feed", daysGone, workers.size());
         FeedWorkers();
-        boolean someoneAlive = false;
-        for (Worker worker: workers) {
-            worker.DoWork();
+        feedPhase.Finish();
+
+        DayPhaseEvent workPhase = DayPhaseEvent.Start("work", daysGone, workers.size());
+        int alive = 0;
+        int hungry = 0;
+        for (int i = 0; i < workedToday.length; i++) {
+            workedToday[i] = 0;
+            aliveToday[i] = 0;
+        }
+        // Indexed loops here and in FeedWorkers: a day must not allocate, not even an iterator.
+        for (int w = 0; w < workers.size(); w++) {
+            Worker worker = workers.get(w);
+            boolean wasAlive = worker.isAlive();
+            if (!wasAlive && !quiet) {
+                System.out.println(worker.getName() + " is not alive and cannot work...");
+            }
+            if (worker.DoWork()) {
+                // Builders take their turn among the others, as completing a project can change what the workers
+                // after them produce, so the build phase is timed per builder rather than as one span.
+                if (worker.getProduces() == Occupation.BUILD && projects.size() > 0) {
+                    DayPhaseEvent buildPhase = DayPhaseEvent.Start("build", daysGone, workers.size());
+                    Work(worker);
+                    buildPhase.Finish();
+                } else {
+                    Work(worker);
+                }
+                if (worker.getProduces() >= 0 && worker.getProduces() < workedToday.length) {
+                    workedToday[worker.getProduces()]++;
+                }
+            }
             if (worker.isAlive()) {
-                someoneAlive = true;
+                alive++;
+                if (worker.getDaysHungry() > 0) {
+                    hungry++;
+                }
+                if (worker.getProduces() >= 0 && worker.getProduces() < aliveToday.length) {
+                    aliveToday[worker.getProduces()]++;
+                }
+            }
+            else if (wasAlive) {
+                if (!quiet) {
+                    System.out.println(worker.getName() + " has died of hunger!");
+                }
+                estimator.Invalidate();
+                for (int i = 0; i < listeners.size(); i++) {
+                    listeners.get(i).OnWorkerDied(this, worker);
+                }
             }
         }
+        boolean someoneAlive = alive > 0;
+        workPhase.Finish();
         daysGone++;
+        history.Record(daysGone, food, wood, metal, alive, hungry, completedSinceLastDay);
+        completedSinceLastDay = 0;
+        estimator.CheckDay(workedToday);
         if (!someoneAlive && workers.size() > 0) {
-            System.out.println("Everyone is dead! You lasted " + daysGone + " days!");
+            if (!quiet) {
+                System.out.println("Everyone is dead! You lasted " + daysGone + " days!");
+            }
             GameOver();
         }
+        statusBoard.Publish(this, alive, hungry, aliveToday);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).OnDayEnd(this);
+        }
+    }
+
+    public void AddListener(IVillageListener listener) {
+        listeners.add(listener);
+    }
+
+    public void RemoveListener(IVillageListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Runs up to days days, stopping early if the game ends. Returns how many days actually passed.
+    public int Advance(int days) {
+        int advanced = 0;
+        while (advanced < days && !gameOver) {
+            Day();
+            advanced++;
+        }
+        return advanced;
     }
 
     public void GameOver() {
@@ -115,118 +230,272 @@ public class Village {
     }
 
 
-    /*
-    public void AddWorker(String name, String occupation) {
-        if(occupationHashMap.containsKey(occupation)) {
-            IOccupationAction jobInterface = occupationHashMap.get(occupation);
-            Worker worker = new Worker(name, occupation, jobInterface);
-            workers.add(worker);
-            System.out.println(name + " was successfully added.");
-            return;
-        }
-        System.out.println("There is no such job.");
-    }*/
     public boolean AddWorker(String name, String occupation) {
         if (workers.size() < maxWorkers) {
-            if (occupationHashMap.containsKey(occupation)) {
-                IOccupationAction jobInterface = occupationHashMap.get(occupation);
-                Worker worker = new Worker(name, occupation, jobInterface);
+            Occupation job = catalog.getOccupations().get(occupation);
+            if (job != null) {
+                Worker worker;
+                if (spareWorkers.isEmpty()) {
+                    worker = new Worker(name, occupation, job.getProduces());
+                } else {
+                    worker = spareWorkers.remove(spareWorkers.size() - 1);
+                    worker.Reset(name, occupation, job.getProduces());
+                }
                 workers.add(worker);
-                System.out.println(name + " was successfully added.");
+                workersHired++;
+                estimator.Invalidate();
+                if (!quiet) {
+                    System.out.println(name + " was successfully added.");
+                }
                 return true;
             } else {
-                System.out.println("There is no such job.");
+                if (!quiet) {
+                    System.out.println("There is no such job.");
+                }
                 return false;
             }
         } else {
-            System.out.println("Cannot add more workers. Max capacity reached.");
+            if (!quiet) {
+                System.out.println("Cannot add more workers. Max capacity reached.");
+            }
             return false;
         }
     }
 
 
-    public void AddProject(String name) {
-        if (possibleProjects.containsKey(name)) {
-            PossibleProject possibleProject = possibleProjects.get(name);
+    // Hires up to count workers of one occupation, as many as there is room for. Their names ("Farmer 12")
+    // are only built if something asks for them. Returns how many were hired.
+    public int AddWorkers(String occupation, int count) {
+        Occupation job = catalog.getOccupations().get(occupation);
+        if (job == null) {
+            if (!quiet) {
+                System.out.println("There is no such job.");
+            }
+            return 0;
+        }
+        int hired = Math.max(0, Math.min(count, maxWorkers - workers.size()));
+        workers.ensureCapacity(workers.size() + hired);
+        for (int i = 0; i < hired; i++) {
+            workersHired++;
+            Worker worker = spareWorkers.isEmpty() ? new Worker(null, occupation, job.getProduces()) : spareWorkers.remove(spareWorkers.size() - 1);
+            worker.ResetUnnamed(workersHired, occupation, job.getProduces());
+            workers.add(worker);
+        }
+        if (hired > 0) {
+            estimator.Invalidate();
+        }
+        if (!quiet) {
+            System.out.println(hired + " " + occupation + (hired == 1 ? " was" : "s were") + " added.");
+        }
+        return hired;
+    }
+
+
+    public boolean AddProject(String name) {
+        PossibleProject possibleProject = catalog.getProjects().get(name);
+        if (possibleProject != null) {
             if (getWood() >= possibleProject.getWoodCost() &&
                     getMetal() >= possibleProject.getMetalCost()) {
                 wood -= possibleProject.getWoodCost();
                 metal -= possibleProject.getMetalCost();
 
-                Project newProject = possibleProject.GetProject();
+                Project newProject = NewProject(possibleProject);
+                projects.add(newProject);
+                estimator.Invalidate();
+                for (int i = 0; i < listeners.size(); i++) {
+                    listeners.get(i).OnProjectAdded(this, newProject, possibleProject.getWoodCost(), possibleProject.getMetalCost());
+                }
+                if (!quiet) {
+                    System.out.println(newProject.getName() + " added to the project queue!");
+                }
+                return true;
+            }
+            if (!quiet) {
+                System.out.println("Not enough material!");
+            }
+            return false;
+        }
+        if (!quiet) {
+            System.out.println("That was not one of the options.");
+        }
+        return false;
+    }
+
+    // Queues several projects at once, e.g. {House=3, Farm=1}. Either every project is queued and the total
+    // cost deducted, or nothing changes and false is returned.
+    public boolean EnqueueProjects(Map<String, Integer> counts) {
+        long woodNeeded = 0;
+        long metalNeeded = 0;
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            PossibleProject possibleProject = catalog.getProjects().get(entry.getKey());
+            int count = entry.getValue();
+            if (possibleProject == null || count < 0) {
+                if (!quiet) {
+                    System.out.println(entry.getKey() + " x" + count + " was not one of the options.");
+                }
+                return false;
+            }
+            woodNeeded += (long) possibleProject.getWoodCost() * count;
+            metalNeeded += (long) possibleProject.getMetalCost() * count;
+            total += count;
+        }
+        if (woodNeeded > wood || metalNeeded > metal) {
+            if (!quiet) {
+                System.out.println("Not enough material! Needed " + woodNeeded + " wood and " + metalNeeded + " metal.");
+            }
+            return false;
+        }
+
+        wood -= (int) woodNeeded;
+        metal -= (int) metalNeeded;
+        estimator.Invalidate();
+        projects.ensureCapacity(projects.size() + total);
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            PossibleProject possibleProject = catalog.getProjects().get(entry.getKey());
+            for (int i = 0; i < entry.getValue(); i++) {
+                Project newProject = NewProject(possibleProject);
                 projects.add(newProject);
-                System.out.println(newProject.getName() + " added to the project queue!");
-                return;
+                for (int j = 0; j < listeners.size(); j++) {
+                    listeners.get(j).OnProjectAdded(this, newProject, possibleProject.getWoodCost(), possibleProject.getMetalCost());
+                }
             }
-            System.out.println("Not enough material!");
-            return;
         }
-        System.out.println("That was not one of the options.");
+        if (!quiet) {
+            System.out.println(total + " projects added to the project queue!");
+        }
+        return true;
+    }
+
+    // How many of each project the current wood and metal would pay for. Free projects report Integer.MAX_VALUE.
+    public Map<String, Integer> getAffordable() {
+        Map<String, Integer> affordable = new LinkedHashMap<>();
+        for (PossibleProject possibleProject : catalog.getProjects().values()) {
+            int count = Integer.MAX_VALUE;
+            if (possibleProject.getWoodCost() > 0) {
+                count = Math.min(count, Math.max(wood, 0) / possibleProject.getWoodCost());
+            }
+            if (possibleProject.getMetalCost() > 0) {
+                count = Math.min(count, Math.max(metal, 0) / possibleProject.getMetalCost());
+            }
+            affordable.put(possibleProject.getName(), count);
+        }
+        return affordable;
+    }
+
+    private Project NewProject(PossibleProject possibleProject) {
+        if (spareProjects.isEmpty()) {
+            return possibleProject.GetProject();
+        }
+        Project project = spareProjects.remove(spareProjects.size() - 1);
+        project.Reset(possibleProject);
+        return project;
+    }
+
+    private void Work(Worker worker) {
+        // The name is only printed, and asking for it makes a bulk-hired worker build one.
+        String name = quiet ? null : worker.getName();
+        switch (worker.getProduces()) {
+            case Occupation.FOOD -> AddFood(name);
+            case Occupation.WOOD -> AddWood(name);
+            case Occupation.METAL -> AddMetal(name);
+            case Occupation.BUILD -> Build(name);
+        }
     }
 
     public void AddFood(String name) {
         food += foodPerDay;
-        System.out.println(name + " gathers " + foodPerDay + " food!");
+        if (!quiet) {
+            System.out.println(name + " gathers " + foodPerDay + " food!");
+        }
     }
     public void AddMetal(String name) {
         metal += metalPerDay;
-        System.out.println(name + " gathers " + metalPerDay + " metal!");
+        if (!quiet) {
+            System.out.println(name + " gathers " + metalPerDay + " metal!");
+        }
     }
     public void AddWood(String name) {
         wood += woodPerDay;
-        System.out.println(name + " gathers " + woodPerDay + " wood!");
+        if (!quiet) {
+            System.out.println(name + " gathers " + woodPerDay + " wood!");
+        }
     }
     public void Build(String name) {
         if (projects.size() > 0) {
             Project currentProject = projects.get(0);
-            System.out.println(name + " builds on " + currentProject.getName() + "!");
+            if (!quiet) {
+                System.out.println(name + " builds on " + currentProject.getName() + "!");
+            }
             boolean complete = currentProject.BuildOn();
             if (complete) {
                 projects.remove(currentProject);
-                buildings.add(new Building(currentProject.getName()));
-                System.out.println(currentProject.getName() + " was completed!");
-                currentProject.Complete();
+                buildings.add(catalog.getBuilding(currentProject.getName()));
+                completedSinceLastDay++;
+                if (!quiet) {
+                    System.out.println(currentProject.getName() + " was completed!");
+                }
+                currentProject.Complete(this);
+                for (int i = 0; i < listeners.size(); i++) {
+                    listeners.get(i).OnProjectCompleted(this, currentProject);
+                }
             }
         }
         else {
-            System.out.println("No buildings for " + name + " to work on!");
+            if (!quiet) {
+                System.out.println("No buildings for " + name + " to work on!");
+            }
         }
     }
 
     private void FeedWorkers() {
-        for (Worker worker: workers) {
+        for (int w = 0; w < workers.size(); w++) {
+            Worker worker = workers.get(w);
             if (food > 0 && worker.isAlive()) {
                 worker.Feed();
-                System.out.print(worker.getName() + " eats. ");
+                if (!quiet) {
+                    System.out.print(worker.getName() + " eats. ");
+                }
                 food--;
             }
             else {
                 if (worker.isAlive()) {
-                    System.out.println("No food left for " + worker.getName() + "! " + worker.getDaysHungry() + " days without food! ");
+                    if (!quiet) {
+                        System.out.println("No food left for " + worker.getName() + "! " + worker.getDaysHungry() + " days without food! ");
+                    }
                 }
                 else {
-                    System.out.println(worker.getName() + " is dead...");
+                    if (!quiet) {
+                        System.out.println(worker.getName() + " is dead...");
+                    }
                 }
             }
         }
-        System.out.println();
+        if (!quiet) {
+            System.out.println();
+        }
     }
 
-    private void NewHouse() {
-        maxWorkers += 2;
-    }
-    private void NewFarm() {
-        foodPerDay += 5;
-    }
-    private void NewQuarry() {
-        metalPerDay++;
-    }
-    private void NewWoodmill() {
-        woodPerDay++;
+    @Override
+    public void ApplyEffect(int effect) {
+        estimator.Invalidate();
+        int amount = Effect.Operand(effect);
+        switch (Effect.Opcode(effect)) {
+            case Effect.ADD_MAX_WORKERS -> maxWorkers += amount;
+            case Effect.ADD_FOOD_PER_DAY -> foodPerDay += amount;
+            case Effect.ADD_WOOD_PER_DAY -> woodPerDay += amount;
+            case Effect.ADD_METAL_PER_DAY -> metalPerDay += amount;
+            case Effect.WIN -> NewCastle();
+        }
     }
     private void NewCastle() {
-        System.out.println("Castle complete! It took " + daysGone + " days!");
+        if (!quiet) {
+            System.out.println("Castle complete! It took " + daysGone + " days!");
+        }
         GameOver();
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).OnVictory(this);
+        }
     }
 
     public int getFood() {
@@ -240,18 +509,21 @@ public class Village {
     }
     public void setWood(int wood) {
         this.wood = wood;
+        estimator.Invalidate();
     }
     public int getMetal() {
         return metal;
     }
     public void setMetal(int metal) {
         this.metal = metal;
+        estimator.Invalidate();
     }
     public ArrayList<Worker> getWorkers() {
         return workers;
     }
     public void setWorkers(ArrayList<Worker> workers) {
         this.workers = workers;
+        estimator.Invalidate();
     }
     public ArrayList<Building> getBuildings() {
         return buildings;
@@ -264,18 +536,21 @@ public class Village {
     }
     public void setProjects(ArrayList<Project> projects) {
         this.projects = projects;
+        estimator.Invalidate();
     }
     public int getMetalPerDay() {
         return metalPerDay;
     }
     public void setMetalPerDay(int metalPerDay) {
         this.metalPerDay = metalPerDay;
+        estimator.Invalidate();
     }
     public int getWoodPerDay() {
         return woodPerDay;
     }
     public void setWoodPerDay(int woodPerDay) {
         this.woodPerDay = woodPerDay;
+        estimator.Invalidate();
     }
     public int getFoodPerDay() {
         return foodPerDay;
@@ -288,6 +563,7 @@ public class Village {
     }
     public void setDaysGone(int daysGone) {
         this.daysGone = daysGone;
+        estimator.Invalidate();
     }
 
     public boolean isGameOver() {
@@ -298,12 +574,55 @@ public class Village {
         this.gameOver = gameOver;
     }
 
-    public HashMap<String, IOccupationAction> getOccupationHashMap() {
-        return occupationHashMap;
+    public Catalog getCatalog() {
+        return catalog;
+    }
+
+    public Map<String, Occupation> getOccupations() {
+        return catalog.getOccupations();
+    }
+
+    public Map<String, PossibleProject> getPossibleProjects() {
+        return catalog.getProjects();
+    }
+
+    public int getWorkersHired() {
+        return workersHired;
+    }
+
+    public void setWorkersHired(int workersHired) {
+        this.workersHired = workersHired;
     }
 
-    public HashMap<String, PossibleProject> getPossibleProjects() {
-        return possibleProjects;
+    // Days until the project can be afforded, 0 if it can now, or ProjectEstimator.NEVER. O(1) while nothing
+    // changed beyond what the estimate expected.
+    public int getDaysUntilAffordable(String project) {
+        return estimator.DaysUntilAffordable(this, project);
+    }
+
+    // Days until the project would be built if queued as soon as it is affordable, or ProjectEstimator.NEVER.
+    public int getDaysUntilBuilt(String project) {
+        return estimator.DaysUntilBuilt(this, project);
+    }
+
+    // The status as of the end of the last day, or the last PublishStatus. Safe to call from any thread while
+    // the village is running.
+    public VillageStatus getStatus() {
+        return statusBoard.Read();
+    }
+
+    // Publishes the current state for getStatus, e.g. after commands that changed the village between days.
+    // Must be called by the thread running the village.
+    public void PublishStatus() {
+        statusBoard.Publish(this);
+    }
+
+    public ProjectEstimator getEstimator() {
+        return estimator;
+    }
+
+    public VillageHistory getHistory() {
+        return history;
     }
 
     public int getMaxWorkers() {
@@ -314,6 +633,15 @@ public class Village {
         this.maxWorkers = maxWorkers;
     }
 
+    // A quiet village prints nothing while simulating, for hosted and batch use. PrintInfo still prints.
+    public boolean isQuiet() {
+        return quiet;
+    }
+
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
     public boolean isFull() {
         return maxWorkers <= workers.size();
     }
@@ -0,0 +1,242 @@
+package org.example;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Fixed-size per-day history of a village. The most recent days are kept exactly in a ring buffer; days that
+// fall out of it are folded into buckets of several days holding min, max and sum per metric. When the bucket
+// ring is full the oldest bucket is dropped, so memory use does not grow with the length of the run.
+public class VillageHistory {
+    public static final int FOOD = 0;
+    public static final int WOOD = 1;
+    public static final int METAL = 2;
+    public static final int ALIVE = 3;
+    public static final int HUNGRY = 4;
+    public static final int COMPLETED = 5;
+    public static final int METRICS = 6;
+
+    private final int recentCapacity;
+    private final int daysPerBucket;
+    private final int bucketCapacity;
+
+    private final int[] recent;
+    private final int[] recentDay;
+    private int recentStart = 0;
+    private int recentCount = 0;
+
+    private final int[] bucketMin;
+    private final int[] bucketMax;
+    private final long[] bucketSum;
+    private final int[] bucketFirstDay;
+    private final int[] bucketDays;
+    private int bucketStart = 0;
+    private int bucketCount = 0;
+
+    private long recordedDays = 0;
+
+    public VillageHistory(int recentCapacity, int daysPerBucket, int bucketCapacity) {
+        if (recentCapacity < 1 || daysPerBucket < 1 || bucketCapacity < 1) {
+            throw new IllegalArgumentException("History capacities must be positive");
+        }
+        this.recentCapacity = recentCapacity;
+        this.daysPerBucket = daysPerBucket;
+        this.bucketCapacity = bucketCapacity;
+        recent = new int[recentCapacity * METRICS];
+        recentDay = new int[recentCapacity];
+        bucketMin = new int[bucketCapacity * METRICS];
+        bucketMax = new int[bucketCapacity * METRICS];
+        bucketSum = new long[bucketCapacity * METRICS];
+        bucketFirstDay = new int[bucketCapacity];
+        bucketDays = new int[bucketCapacity];
+    }
+
+    public void Record(int day, int food, int wood, int metal, int alive, int hungry, int completed) {
+        int slot;
+        if (recentCount == recentCapacity) {
+            slot = recentStart;
+            Fold(slot);
+            recentStart = (recentStart + 1) % recentCapacity;
+        } else {
+            slot = (recentStart + recentCount) % recentCapacity;
+            recentCount++;
+        }
+        int base = slot * METRICS;
+        recent[base + FOOD] = food;
+        recent[base + WOOD] = wood;
+        recent[base + METAL] = metal;
+        recent[base + ALIVE] = alive;
+        recent[base + HUNGRY] = hungry;
+        recent[base + COMPLETED] = completed;
+        recentDay[slot] = day;
+        recordedDays++;
+    }
+
+    public void Clear() {
+        recentStart = 0;
+        recentCount = 0;
+        bucketStart = 0;
+        bucketCount = 0;
+        recordedDays = 0;
+    }
+
+    // Writes the slots in use in ring order as they lie, not oldest first, so a day later only one slot differs.
+    public void Write(DataOutput out) throws IOException {
+        out.writeInt(recentCapacity);
+        out.writeInt(daysPerBucket);
+        out.writeInt(bucketCapacity);
+        out.writeLong(recordedDays);
+        out.writeInt(recentStart);
+        out.writeInt(recentCount);
+        for (int slot = 0; slot < recentCount; slot++) {
+            out.writeInt(recentDay[slot]);
+            for (int metric = 0; metric < METRICS; metric++) {
+                out.writeInt(recent[slot * METRICS + metric]);
+            }
+        }
+        out.writeInt(bucketStart);
+        out.writeInt(bucketCount);
+        for (int slot = 0; slot < bucketCount; slot++) {
+            out.writeInt(bucketFirstDay[slot]);
+            out.writeInt(bucketDays[slot]);
+            for (int metric = 0; metric < METRICS; metric++) {
+                int index = slot * METRICS + metric;
+                out.writeInt(bucketMin[index]);
+                out.writeInt(bucketMax[index]);
+                out.writeLong(bucketSum[index]);
+            }
+        }
+    }
+
+    // Replaces the history with one written by Write. Throws IllegalArgumentException if it was written with
+    // other capacities.
+    public void Read(DataInput in) throws IOException {
+        if (in.readInt() != recentCapacity || in.readInt() != daysPerBucket || in.readInt() != bucketCapacity) {
+            throw new IllegalArgumentException("History was written with other capacities");
+        }
+        long days = in.readLong();
+        int start = in.readInt();
+        int count = in.readInt();
+        if (count < 0 || count > recentCapacity || start < 0 || start >= recentCapacity || start > 0 && count < recentCapacity) {
+            throw new IllegalArgumentException("Bad recent days in history");
+        }
+        Clear();
+        for (int slot = 0; slot < count; slot++) {
+            recentDay[slot] = in.readInt();
+            for (int metric = 0; metric < METRICS; metric++) {
+                recent[slot * METRICS + metric] = in.readInt();
+            }
+        }
+        int firstBucket = in.readInt();
+        int buckets = in.readInt();
+        if (buckets < 0 || buckets > bucketCapacity || firstBucket < 0 || firstBucket >= bucketCapacity || firstBucket > 0 && buckets < bucketCapacity) {
+            throw new IllegalArgumentException("Bad buckets in history");
+        }
+        for (int slot = 0; slot < buckets; slot++) {
+            bucketFirstDay[slot] = in.readInt();
+            bucketDays[slot] = in.readInt();
+            for (int metric = 0; metric < METRICS; metric++) {
+                int index = slot * METRICS + metric;
+                bucketMin[index] = in.readInt();
+                bucketMax[index] = in.readInt();
+                bucketSum[index] = in.readLong();
+            }
+        }
+        recordedDays = days;
+        recentStart = start;
+        recentCount = count;
+        bucketStart = firstBucket;
+        bucketCount = buckets;
+    }
+
+    // Moves the day in the given recent slot into the newest bucket, opening a new bucket when it is full.
+    private void Fold(int slot) {
+        int bucket;
+        if (bucketCount > 0 && bucketDays[NewestBucket()] < daysPerBucket) {
+            bucket = NewestBucket();
+        } else {
+            if (bucketCount == bucketCapacity) {
+                bucketStart = (bucketStart + 1) % bucketCapacity;
+                bucketCount--;
+            }
+            bucket = (bucketStart + bucketCount) % bucketCapacity;
+            bucketCount++;
+            bucketFirstDay[bucket] = recentDay[slot];
+            bucketDays[bucket] = 0;
+            for (int metric = 0; metric < METRICS; metric++) {
+                bucketMin[bucket * METRICS + metric] = Integer.MAX_VALUE;
+                bucketMax[bucket * METRICS + metric] = Integer.MIN_VALUE;
+                bucketSum[bucket * METRICS + metric] = 0;
+            }
+        }
+        for (int metric = 0; metric < METRICS; metric++) {
+            int value = recent[slot * METRICS + metric];
+            int index = bucket * METRICS + metric;
+            bucketMin[index] = Math.min(bucketMin[index], value);
+            bucketMax[index] = Math.max(bucketMax[index], value);
+            bucketSum[index] += value;
+        }
+        bucketDays[bucket]++;
+    }
+
+    private int NewestBucket() {
+        return (bucketStart + bucketCount - 1) % bucketCapacity;
+    }
+
+    public long getRecordedDays() {
+        return recordedDays;
+    }
+
+    public int getRecentCount() {
+        return recentCount;
+    }
+
+    // Day number of the i-th kept day at full resolution, 0 being the oldest.
+    public int getRecentDay(int i) {
+        return recentDay[RecentSlot(i)];
+    }
+
+    public int getRecent(int i, int metric) {
+        return recent[RecentSlot(i) * METRICS + metric];
+    }
+
+    private int RecentSlot(int i) {
+        if (i < 0 || i >= recentCount) {
+            throw new IndexOutOfBoundsException("Recent day " + i + " of " + recentCount);
+        }
+        return (recentStart + i) % recentCapacity;
+    }
+
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    // Day number of the first day in the i-th bucket, 0 being the oldest bucket still kept.
+    public int getBucketFirstDay(int i) {
+        return bucketFirstDay[BucketSlot(i)];
+    }
+
+    public int getBucketDays(int i) {
+        return bucketDays[BucketSlot(i)];
+    }
+
+    public int getBucketMin(int i, int metric) {
+        return bucketMin[BucketSlot(i) * METRICS + metric];
+    }
+
+    public int getBucketMax(int i, int metric) {
+        return bucketMax[BucketSlot(i) * METRICS + metric];
+    }
+
+    public double getBucketAverage(int i, int metric) {
+        int slot = BucketSlot(i);
+        return (double) bucketSum[slot * METRICS + metric] / bucketDays[slot];
+    }
+
+    private int BucketSlot(int i) {
+        if (i < 0 || i >= bucketCount) {
+            throw new IndexOutOfBoundsException("Bucket " + i + " of " + bucketCount);
+        }
+        return (bucketStart + i) % bucketCapacity;
+    }
+}
@@ -1,32 +1,71 @@
 package org.example;
 
+import org.example.export.RunExporter;
 import org.example.interfaces.IAction;
+import org.example.jfr.CommandEvent;
 import org.example.objects.PossibleProject;
+import org.example.storage.SaveIndex;
+import org.example.storage.WriteBehindSaver;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class VillageInput {
     DatabaseConnection databaseConnection = new DatabaseConnection();
+    WriteBehindSaver saver = new WriteBehindSaver(databaseConnection);
+    SaveIndex saveIndex;
+    RunExporter exporter;
     Village village = new Village();
     Scanner scanner = new Scanner(System.in);
     private final HashMap<String, IAction> actions = new HashMap<>();
     ArrayList<String> options = new ArrayList<>();
+    // Messages from background work (saves finishing), printed between prompts so they never cut into one.
+    private final ConcurrentLinkedQueue<String> notices = new ConcurrentLinkedQueue<>();
 
 
     public VillageInput(Village village, DatabaseConnection databaseConnection) {
         this();
         this.village = village;
         this.databaseConnection = databaseConnection;
+        this.saver = new WriteBehindSaver(databaseConnection);
+    }
+
+    // The save index lives in the directory named by the village.saves property, "saves" by default. A new
+    // index starts out with the names the database already knows.
+    private synchronized SaveIndex Index() {
+        if (saveIndex == null) {
+            saveIndex = SaveIndex.Open(Path.of(System.getProperty("village.saves", "saves")));
+            if (saveIndex.isNew()) {
+                saveIndex.AddAll(databaseConnection.GetTownNames());
+            }
+        }
+        return saveIndex;
+    }
+    // Streams the days of the current village, and of any village loaded later, until the game ends.
+    public void setExporter(RunExporter exporter) {
+        this.exporter = exporter;
+        village.AddListener(exporter);
     }
     public VillageInput() {
         actions.put("1", () -> AddWorker());
         actions.put("2", () -> AddProject());
-        actions.put("3", () -> village.Day());
+        actions.put("3", () -> {
+            CommandEvent event = CommandEvent.Start("3");
+            village.Day();
+            event.Finish();
+        });
         actions.put("4", () -> Load());
         actions.put("5", () -> Save());
-        actions.put("6", () -> village.GameOver());
+        actions.put("6", () -> {
+            CommandEvent event = CommandEvent.Start("6");
+            village.GameOver();
+            event.Finish();
+        });
 
         options.add("1: Add Worker.");
         options.add("2: Add Project.");
@@ -45,6 +84,7 @@ public class VillageInput {
             village.PrintInfo();
 
             while (true) {
+                PrintNotices();
                 System.out.println();
                 System.out.println("Day " + village.getDaysGone());
                 System.out.println("What would you like to do?");
@@ -54,12 +94,34 @@ public class VillageInput {
 
                 String choice = scanner.nextLine();
                 if (actions.containsKey(choice)) {
+                    // Each action times its own work once the player has answered its prompts.
                     actions.get(choice).Action();
                     break;
                 }
                 System.out.println("That's not an option.");
             }
         }
+        saver.close();
+        PrintNotices();
+        // After the saver, as finished saves add their names to the index.
+        synchronized (this) {
+            if (saveIndex != null) {
+                saveIndex.close();
+            }
+        }
+        if (exporter != null) {
+            try {
+                exporter.close();
+            } catch (IOException e) {
+                System.out.println("Could not finish the export: " + e.getMessage());
+            }
+        }
+    }
+    private void PrintNotices() {
+        String notice;
+        while ((notice = notices.poll()) != null) {
+            System.out.println(notice);
+        }
     }
     private void AddWorker() {
         if ( village.isFull()) {
@@ -75,7 +137,9 @@ public class VillageInput {
         }
         System.out.println("What's their job? The options are Farmer, Lumberjack, Miner or Builder.");
         String occupation = scanner.nextLine().toLowerCase();
+        CommandEvent event = CommandEvent.Start("1");
         village.AddWorker(name, occupation);
+        event.Finish();
         System.out.println();
     }
     private void AddProject() {
@@ -84,22 +148,17 @@ public class VillageInput {
             System.out.println(possibleProject.getName() + ": " + possibleProject.getWoodCost() + " wood, " + possibleProject.getMetalCost() + " metal");
         }
         String name = scanner.nextLine();
+        CommandEvent event = CommandEvent.Start("2");
         village.AddProject(name);
+        event.Finish();
         System.out.println();
     }
 
     public void Save() {
         System.out.println("What name do you wish to save the village under? Current villages are: ");
-        ArrayList<String> villages = databaseConnection.GetTownNames();
-
-        for (String villageName: villages) {
-            System.out.print(villageName + " ");
-        }
-        System.out.println();
+        String choice = ChooseVillageName();
 
-        String choice = scanner.nextLine();
-
-        if (villages.contains(choice)) {
+        if (Index().Contains(choice)) {
             System.out.println("Are you sure you want to overwrite " + choice + "? Write \"y\" for yes. Anything else for no.");
             String yes = scanner.nextLine().toLowerCase();
             if (!yes.equals("y")) {
@@ -108,39 +167,67 @@ public class VillageInput {
             }
         }
 
-        boolean success = databaseConnection.SaveVillage(village, choice);
-
-        if (success) {
-            System.out.println("Village " + choice + " successfully saved.");
-        }
-        else {
-            System.out.println("Error, something went wrong. Could not save.");
-        }
+        CommandEvent event = CommandEvent.Start("5");
+        saver.Save(village, choice).whenComplete((success, error) -> {
+            if (error == null && success) {
+                Index().Add(choice);
+                notices.add("Village " + choice + " successfully saved.");
+            }
+            else {
+                notices.add("Error, something went wrong. Could not save " + choice + ".");
+            }
+        });
+        event.Finish();
+        System.out.println("Saving " + choice + " in the background.");
     }
 
     public void Load() {
         System.out.println("Which village would you like to load? The choices are: ");
-        ArrayList<String> villages = databaseConnection.GetTownNames();
-
-        for (String villageName: villages) {
-            System.out.print(villageName + " ");
-        }
-        System.out.println();
-
-        String choice = scanner.nextLine();
+        String choice = ChooseVillageName();
 
-        if (!villages.contains(choice)) {
+        if (!Index().Contains(choice)) {
             System.out.println("That's not one of the choices.");
             return;
         }
 
+        CommandEvent event = CommandEvent.Start("4");
         Village loadedVillage = databaseConnection.LoadVillage(choice);
+        event.Finish();
         if (loadedVillage != null) {
             System.out.println("Village " + choice + " successfully loaded.");
+            if (exporter != null) {
+                village.RemoveListener(exporter);
+                loadedVillage.AddListener(exporter);
+            }
             village = loadedVillage;
         }
         else {
             System.out.println("Load failed.");
         }
     }
+
+    // Lists the first page of saved villages and reads a name. A name ending in * lists the matching villages and asks again.
+    private String ChooseVillageName() {
+        List<String> page = Index().ListAfter(null, 20);
+        PrintNames(page, Index().size() - page.size());
+        while (true) {
+            String choice = scanner.nextLine();
+            if (!choice.endsWith("*")) {
+                return choice;
+            }
+            String prefix = choice.substring(0, choice.length() - 1);
+            List<String> matches = Index().Search(prefix, 20);
+            PrintNames(matches, matches.size() == 20 ? -1 : 0);
+        }
+    }
+
+    private void PrintNames(List<String> names, int more) {
+        for (String villageName: names) {
+            System.out.print(villageName + " ");
+        }
+        System.out.println();
+        if (more != 0) {
+            System.out.println("... and " + (more > 0 ? more + " " : "") + "more. Type the start of a name followed by * to search.");
+        }
+    }
 }
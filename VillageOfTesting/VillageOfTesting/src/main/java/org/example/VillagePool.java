@@ -0,0 +1,50 @@
+package org.example;
+
+import org.example.catalog.Catalog;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+// Recycles villages for hosts that run many short simulations. Released villages are Reset and handed out again.
+public class VillagePool {
+    private final Catalog catalog;
+    private final ArrayDeque<Village> idle;
+    // The same villages as idle, to notice one being released twice.
+    private final Set<Village> idleSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final int maxIdle;
+
+    public VillagePool(int maxIdle) {
+        this(Catalog.getDefault(), maxIdle);
+    }
+
+    public VillagePool(Catalog catalog, int maxIdle) {
+        this.catalog = catalog;
+        this.maxIdle = maxIdle;
+        idle = new ArrayDeque<>(maxIdle);
+    }
+
+    public synchronized Village Acquire() {
+        Village village = idle.pollFirst();
+        if (village != null) {
+            idleSet.remove(village);
+        }
+        return village != null ? village : new Village(catalog);
+    }
+
+    // The caller must not use the village, or anything it got from it, after releasing it. Releasing a village
+    // that is already idle does nothing, so it can never be handed to two callers.
+    public synchronized void Release(Village village) {
+        if (village.getCatalog() != catalog || idle.size() >= maxIdle || idleSet.contains(village)) {
+            return;
+        }
+        village.Reset();
+        idle.addFirst(village);
+        idleSet.add(village);
+    }
+
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+}
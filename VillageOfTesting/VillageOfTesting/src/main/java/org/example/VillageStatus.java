@@ -0,0 +1,87 @@
+package org.example;
+
+// An immutable copy of a village's headline numbers as of one published moment, see Village.getStatus().
+public final class VillageStatus {
+    private final int day;
+    private final boolean gameOver;
+    private final int food;
+    private final int wood;
+    private final int metal;
+    private final int workers;
+    private final int alive;
+    private final int hungry;
+    private final int maxWorkers;
+    private final int[] aliveByProduces;
+    private final int buildings;
+    private final int projects;
+    private final String headProject;
+    private final int headDaysLeft;
+    private final int headDaysTotal;
+
+    VillageStatus(int day, boolean gameOver, int food, int wood, int metal, int workers, int alive, int hungry, int maxWorkers,
+                  int[] aliveByProduces, int buildings, int projects, String headProject, int headDaysLeft, int headDaysTotal) {
+        this.day = day;
+        this.gameOver = gameOver;
+        this.food = food;
+        this.wood = wood;
+        this.metal = metal;
+        this.workers = workers;
+        this.alive = alive;
+        this.hungry = hungry;
+        this.maxWorkers = maxWorkers;
+        this.aliveByProduces = aliveByProduces;
+        this.buildings = buildings;
+        this.projects = projects;
+        this.headProject = headProject;
+        this.headDaysLeft = headDaysLeft;
+        this.headDaysTotal = headDaysTotal;
+    }
+
+    public int getDay() {
+        return day;
+    }
+    public boolean isGameOver() {
+        return gameOver;
+    }
+    public int getFood() {
+        return food;
+    }
+    public int getWood() {
+        return wood;
+    }
+    public int getMetal() {
+        return metal;
+    }
+    public int getWorkers() {
+        return workers;
+    }
+    public int getAlive() {
+        return alive;
+    }
+    public int getHungry() {
+        return hungry;
+    }
+    public int getMaxWorkers() {
+        return maxWorkers;
+    }
+    // Living workers producing the given Occupation code.
+    public int getAlive(int produces) {
+        return produces >= 0 && produces < aliveByProduces.length ? aliveByProduces[produces] : 0;
+    }
+    public int getBuildings() {
+        return buildings;
+    }
+    public int getProjects() {
+        return projects;
+    }
+    // The project builders are working on, or null when the queue is empty.
+    public String getHeadProject() {
+        return headProject;
+    }
+    public int getHeadDaysLeft() {
+        return headDaysLeft;
+    }
+    public int getHeadDaysTotal() {
+        return headDaysTotal;
+    }
+}
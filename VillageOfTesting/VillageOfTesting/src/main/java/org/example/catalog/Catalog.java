@@ -0,0 +1,114 @@
+package org.example.catalog;
+
+import org.example.objects.Building;
+import org.example.objects.PossibleProject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Immutable description of the occupations and projects a village can use. Loaded once and shared by every Village.
+public final class Catalog {
+    public static final String PATH_PROPERTY = "village.catalog";
+    private static final String DEFAULT_RESOURCE = "/catalog.txt";
+
+    private final Map<String, Occupation> occupations;
+    private final Map<String, PossibleProject> projects;
+    private final Map<String, Building> buildings = new HashMap<>();
+
+    private Catalog(Map<String, Occupation> occupations, Map<String, PossibleProject> projects) {
+        this.occupations = Collections.unmodifiableMap(occupations);
+        this.projects = Collections.unmodifiableMap(projects);
+        for (String name : projects.keySet()) {
+            buildings.put(name, new Building(name));
+        }
+    }
+
+    // The catalog file named by the village.catalog system property, or the bundled catalog.txt.
+    public static Catalog getDefault() {
+        return DefaultHolder.DEFAULT;
+    }
+
+    public static Catalog Load(Path path) {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return Parse(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read catalog " + path, e);
+        }
+    }
+
+    public static Catalog Parse(Reader source) throws IOException {
+        Map<String, Occupation> occupations = new LinkedHashMap<>();
+        Map<String, PossibleProject> projects = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            try {
+                if (parts[0].equals("occupation") && parts.length == 3) {
+                    occupations.put(parts[1], new Occupation(parts[1], Occupation.ParseProduces(parts[2])));
+                } else if (parts[0].equals("project") && parts.length == 6) {
+                    projects.put(parts[1], new PossibleProject(parts[1],
+                            Integer.parseInt(parts[2]),
+                            Integer.parseInt(parts[3]),
+                            Integer.parseInt(parts[4]),
+                            Effect.Parse(parts[5])));
+                } else {
+                    throw new IllegalArgumentException("Unrecognised entry");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Catalog line " + lineNumber + ": " + e.getMessage() + " in \"" + line + "\"", e);
+            }
+        }
+        return new Catalog(occupations, projects);
+    }
+
+    public Map<String, Occupation> getOccupations() {
+        return occupations;
+    }
+
+    public Map<String, PossibleProject> getProjects() {
+        return projects;
+    }
+
+    // The finished building for a project. Buildings are immutable, so one instance is shared by all villages.
+    public Building getBuilding(String name) {
+        Building building = buildings.get(name);
+        return building != null ? building : new Building(name);
+    }
+
+    private static final class DefaultHolder {
+        private static final Catalog DEFAULT = LoadDefault();
+
+        private static Catalog LoadDefault() {
+            String path = System.getProperty(PATH_PROPERTY);
+            if (path != null) {
+                return Load(Path.of(path));
+            }
+            try (InputStream stream = Catalog.class.getResourceAsStream(DEFAULT_RESOURCE)) {
+                if (stream == null) {
+                    throw new IllegalStateException("Missing bundled catalog " + DEFAULT_RESOURCE);
+                }
+                return Parse(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read bundled catalog", e);
+            }
+        }
+    }
+}
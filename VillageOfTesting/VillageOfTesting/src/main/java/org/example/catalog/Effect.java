@@ -0,0 +1,59 @@
+package org.example.catalog;
+
+// A project effect packed into a single int: the opcode in the top byte and a signed 24 bit operand below it.
+public final class Effect {
+    public static final int NONE = 0;
+    public static final int ADD_MAX_WORKERS = 1;
+    public static final int ADD_FOOD_PER_DAY = 2;
+    public static final int ADD_WOOD_PER_DAY = 3;
+    public static final int ADD_METAL_PER_DAY = 4;
+    public static final int WIN = 5;
+
+    private static final int MAX_OPERAND = (1 << 23) - 1;
+
+    private Effect() {
+    }
+
+    public static int Encode(int opcode, int operand) {
+        if (operand > MAX_OPERAND || operand < -MAX_OPERAND - 1) {
+            throw new IllegalArgumentException("Effect operand out of range: " + operand);
+        }
+        return opcode << 24 | operand & 0xFFFFFF;
+    }
+
+    public static int Opcode(int effect) {
+        return effect >>> 24;
+    }
+
+    public static int Operand(int effect) {
+        return effect << 8 >> 8;
+    }
+
+    // Parses "none", "win" or "<field>+=<amount>" / "<field>-=<amount>".
+    public static int Parse(String text) {
+        if (text.equals("none")) {
+            return Encode(NONE, 0);
+        }
+        if (text.equals("win")) {
+            return Encode(WIN, 0);
+        }
+        int operator = text.indexOf("+=");
+        int sign = 1;
+        if (operator < 0) {
+            operator = text.indexOf("-=");
+            sign = -1;
+        }
+        if (operator < 0) {
+            throw new IllegalArgumentException("Unknown effect: " + text);
+        }
+        String field = text.substring(0, operator).trim();
+        int amount = sign * Integer.parseInt(text.substring(operator + 2).trim());
+        return switch (field) {
+            case "maxWorkers" -> Encode(ADD_MAX_WORKERS, amount);
+            case "foodPerDay" -> Encode(ADD_FOOD_PER_DAY, amount);
+            case "woodPerDay" -> Encode(ADD_WOOD_PER_DAY, amount);
+            case "metalPerDay" -> Encode(ADD_METAL_PER_DAY, amount);
+            default -> throw new IllegalArgumentException("Unknown effect field: " + field);
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.catalog;
+
+public final class Occupation {
+    public static final int FOOD = 0;
+    public static final int WOOD = 1;
+    public static final int METAL = 2;
+    public static final int BUILD = 3;
+
+    private final String name;
+    private final int produces;
+
+    public Occupation(String name, int produces) {
+        this.name = name;
+        this.produces = produces;
+    }
+
+    public static int ParseProduces(String text) {
+        return switch (text) {
+            case "food" -> FOOD;
+            case "wood" -> WOOD;
+            case "metal" -> METAL;
+            case "build" -> BUILD;
+            default -> throw new IllegalArgumentException("Unknown resource: " + text);
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+    public int getProduces() {
+        return produces;
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.commands;
+
+import org.example.Village;
+
+import java.util.Map;
+
+// One player action on a village, parsed from a line of text so it can be sent over the network or replayed:
+//   advance [days]               run days days (default 1, at most MAX_ADVANCE_DAYS)
+//   worker <name> <occupation>   hire one named worker
+//   workers <occupation> <count> hire several workers
+//   project <name> [count]       queue one or more projects
+//   status                       report the village state
+// Counts and days must be at least 1.
+public final class VillageCommand {
+    // One command runs on the village's thread until it is done, so it may not hold that thread for long.
+    public static final int MAX_ADVANCE_DAYS = 10000;
+
+    public enum Kind {
+        ADVANCE,
+        WORKER,
+        WORKERS,
+        PROJECT,
+        STATUS
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final String occupation;
+    private final int count;
+
+    private VillageCommand(Kind kind, String name, String occupation, int count) {
+        this.kind = kind;
+        this.name = name;
+        this.occupation = occupation;
+        this.count = count;
+    }
+
+    public static VillageCommand Advance(int days) {
+        if (days < 1 || days > MAX_ADVANCE_DAYS) {
+            throw new IllegalArgumentException("Days must be between 1 and " + MAX_ADVANCE_DAYS + ", got " + days);
+        }
+        return new VillageCommand(Kind.ADVANCE, null, null, days);
+    }
+
+    public static VillageCommand Worker(String name, String occupation) {
+        return new VillageCommand(Kind.WORKER, name, occupation, 1);
+    }
+
+    public static VillageCommand Workers(String occupation, int count) {
+        return new VillageCommand(Kind.WORKERS, null, occupation, count);
+    }
+
+    public static VillageCommand Project(String name, int count) {
+        return new VillageCommand(Kind.PROJECT, name, null, count);
+    }
+
+    public static VillageCommand Status() {
+        return new VillageCommand(Kind.STATUS, null, null, 0);
+    }
+
+    public static VillageCommand Parse(String line) {
+        String[] parts = line.trim().split("\\s+");
+        try {
+            switch (parts[0].toLowerCase()) {
+                case "advance", "day" -> {
+                    if (parts.length <= 2) {
+                        return Advance(parts.length == 2 ? PositiveInt(parts[1]) : 1);
+                    }
+                }
+                case "worker" -> {
+                    if (parts.length == 3) {
+                        return Worker(parts[1], parts[2].toLowerCase());
+                    }
+                }
+                case "workers" -> {
+                    if (parts.length == 3) {
+                        return Workers(parts[1].toLowerCase(), PositiveInt(parts[2]));
+                    }
+                }
+                case "project" -> {
+                    if (parts.length <= 3 && parts.length >= 2) {
+                        return Project(parts[1], parts.length == 3 ? PositiveInt(parts[2]) : 1);
+                    }
+                }
+                case "status" -> {
+                    if (parts.length == 1) {
+                        return Status();
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown command \"" + parts[0] + "\"");
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad number in \"" + line.trim() + "\"", e);
+        }
+        throw new IllegalArgumentException("Wrong number of arguments in \"" + line.trim() + "\"");
+    }
+
+    private static int PositiveInt(String text) {
+        int value = Integer.parseInt(text);
+        if (value < 1) {
+            throw new NumberFormatException("Count must be at least 1, got " + value);
+        }
+        return value;
+    }
+
+    // Runs the command and returns its result as a JSON object.
+    public String Apply(Village village) {
+        return switch (kind) {
+            case ADVANCE -> {
+                int advanced = village.Advance(count);
+                yield "{\"advanced\":" + advanced + ",\"day\":" + village.getDaysGone() + ",\"gameOver\":" + village.isGameOver() + "}";
+            }
+            case WORKER -> "{\"hired\":" + (village.AddWorker(name, occupation) ? 1 : 0) + "}";
+            case WORKERS -> "{\"hired\":" + village.AddWorkers(occupation, count) + "}";
+            case PROJECT -> "{\"queued\":" + (count == 1 ? village.AddProject(name) : village.EnqueueProjects(Map.of(name, count))) + "}";
+            case STATUS -> VillageJson.Status(village);
+        };
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+    public String getName() {
+        return name;
+    }
+    public String getOccupation() {
+        return occupation;
+    }
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case ADVANCE -> "advance " + count;
+            case WORKER -> "worker " + name + " " + occupation;
+            case WORKERS -> "workers " + occupation + " " + count;
+            case PROJECT -> "project " + name + " " + count;
+            case STATUS -> "status";
+        };
+    }
+}
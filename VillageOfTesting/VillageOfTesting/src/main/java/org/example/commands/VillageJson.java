@@ -0,0 +1,115 @@
+package org.example.commands;
+
+import org.example.Village;
+import org.example.VillageStatus;
+import org.example.catalog.Occupation;
+import org.example.events.VillageEvent;
+import org.example.objects.Project;
+import org.example.objects.Worker;
+
+// Hand-written JSON for the few shapes the control API returns.
+public final class VillageJson {
+    private VillageJson() {
+    }
+
+    public static String Status(Village village) {
+        int alive = 0;
+        int hungry = 0;
+        for (int i = 0; i < village.getWorkers().size(); i++) {
+            Worker worker = village.getWorkers().get(i);
+            if (worker.isAlive()) {
+                alive++;
+                if (worker.getDaysHungry() > 0) {
+                    hungry++;
+                }
+            }
+        }
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"day\":").append(village.getDaysGone())
+                .append(",\"gameOver\":").append(village.isGameOver())
+                .append(",\"food\":").append(village.getFood())
+                .append(",\"wood\":").append(village.getWood())
+                .append(",\"metal\":").append(village.getMetal())
+                .append(",\"workers\":").append(village.getWorkers().size())
+                .append(",\"alive\":").append(alive)
+                .append(",\"hungry\":").append(hungry)
+                .append(",\"maxWorkers\":").append(village.getMaxWorkers())
+                .append(",\"buildings\":").append(village.getBuildings().size())
+                .append(",\"castleInDays\":").append(village.getDaysUntilBuilt("Castle"))
+                .append(",\"projects\":[");
+        for (int i = 0; i < village.getProjects().size(); i++) {
+            Project project = village.getProjects().get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":").append(Quote(project.getName())).append(",\"daysLeft\":").append(project.getDaysLeft()).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    // The village's published status, read without waiting for the village.
+    public static String Snapshot(VillageStatus status) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"day\":").append(status.getDay())
+                .append(",\"gameOver\":").append(status.isGameOver())
+                .append(",\"food\":").append(status.getFood())
+                .append(",\"wood\":").append(status.getWood())
+                .append(",\"metal\":").append(status.getMetal())
+                .append(",\"workers\":").append(status.getWorkers())
+                .append(",\"alive\":").append(status.getAlive())
+                .append(",\"hungry\":").append(status.getHungry())
+                .append(",\"farmers\":").append(status.getAlive(Occupation.FOOD))
+                .append(",\"lumberjacks\":").append(status.getAlive(Occupation.WOOD))
+                .append(",\"miners\":").append(status.getAlive(Occupation.METAL))
+                .append(",\"builders\":").append(status.getAlive(Occupation.BUILD))
+                .append(",\"maxWorkers\":").append(status.getMaxWorkers())
+                .append(",\"buildings\":").append(status.getBuildings())
+                .append(",\"projects\":").append(status.getProjects());
+        if (status.getHeadProject() != null) {
+            json.append(",\"building\":{\"name\":").append(Quote(status.getHeadProject()))
+                    .append(",\"daysLeft\":").append(status.getHeadDaysLeft())
+                    .append(",\"days\":").append(status.getHeadDaysTotal()).append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    public static String Event(VillageEvent event) {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"type\":").append(Quote(event.getType().name()))
+                .append(",\"day\":").append(event.getDay());
+        if (event.getSubject() != null) {
+            json.append(",\"subject\":").append(Quote(event.getSubject()));
+        }
+        json.append(",\"food\":").append(event.getFood())
+                .append(",\"wood\":").append(event.getWood())
+                .append(",\"metal\":").append(event.getMetal())
+                .append('}');
+        return json.toString();
+    }
+
+    public static String Error(String message) {
+        return "{\"error\":" + Quote(message) + "}";
+    }
+
+    public static String Quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,12 @@
+package org.example.events;
+
+// What a subscription does when its buffer is full and another event arrives.
+public enum OverflowPolicy {
+    // Discard the new event.
+    DROP,
+    // Let a newer resource update replace an older queued one; other events make room by discarding a queued
+    // resource update, and are discarded themselves if there is none.
+    COALESCE,
+    // Wait up to the publisher's block timeout for the subscriber to catch up, then discard the new event.
+    BLOCK
+}
@@ -0,0 +1,51 @@
+package org.example.events;
+
+public final class VillageEvent {
+    public enum Type {
+        WORKER_DIED,
+        PROJECT_COMPLETED,
+        CASTLE_COMPLETED,
+        RESOURCES_CHANGED
+    }
+
+    private final Type type;
+    private final int day;
+    private final String subject;
+    private final int food;
+    private final int wood;
+    private final int metal;
+
+    public VillageEvent(Type type, int day, String subject, int food, int wood, int metal) {
+        this.type = type;
+        this.day = day;
+        this.subject = subject;
+        this.food = food;
+        this.wood = wood;
+        this.metal = metal;
+    }
+
+    public Type getType() {
+        return type;
+    }
+    public int getDay() {
+        return day;
+    }
+    // The worker or project the event is about, or null for resource changes and castle completion.
+    public String getSubject() {
+        return subject;
+    }
+    public int getFood() {
+        return food;
+    }
+    public int getWood() {
+        return wood;
+    }
+    public int getMetal() {
+        return metal;
+    }
+
+    @Override
+    public String toString() {
+        return type + " day " + day + (subject != null ? " " + subject : "") + " food=" + food + " wood=" + wood + " metal=" + metal;
+    }
+}
@@ -0,0 +1,284 @@
+package org.example.events;
+
+import org.example.Village;
+import org.example.interfaces.IVillageListener;
+import org.example.objects.Project;
+import org.example.objects.Worker;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Publishes typed village events to Flow subscribers. Register it with Village.AddListener. Every subscriber
+// gets its own bounded buffer and is fed on the executor as it requests more, so a slow subscriber only ever
+// costs the simulation an enqueue (or, with BLOCK, at most the block timeout).
+public class VillageEventPublisher implements Flow.Publisher<VillageEvent>, IVillageListener, AutoCloseable {
+    private final Executor executor;
+    private final int bufferSize;
+    private final OverflowPolicy policy;
+    private final long blockTimeoutNanos;
+    private final CopyOnWriteArrayList<EventSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed = false;
+    // The food, wood and metal last published for each village, so villages sharing the publisher do not cause
+    // or hide each other's resource changes. Weak keys let a village that is dropped elsewhere go away.
+    private final Map<Village, int[]> lastResources = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public VillageEventPublisher(Executor executor, int bufferSize, OverflowPolicy policy) {
+        this(executor, bufferSize, policy, 10, TimeUnit.MILLISECONDS);
+    }
+
+    public VillageEventPublisher(Executor executor, int bufferSize, OverflowPolicy policy, long blockTimeout, TimeUnit unit) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.policy = policy;
+        this.blockTimeoutNanos = unit.toNanos(blockTimeout);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super VillageEvent> subscriber) {
+        EventSubscription subscription = new EventSubscription(subscriber);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+        if (closed) {
+            subscription.Complete();
+        }
+    }
+
+    // Registers with the village unless already registered. Call it where AddListener may be called, on the
+    // thread that runs the village.
+    public void Watch(Village village) {
+        if (lastResources.putIfAbsent(village, NewResources()) == null) {
+            village.AddListener(this);
+        }
+    }
+
+    public void Publish(VillageEvent event) {
+        for (EventSubscription subscription : subscriptions) {
+            subscription.Offer(event);
+        }
+    }
+
+    // Events discarded by the overflow policy, summed over all subscribers.
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void OnWorkerDied(Village village, Worker worker) {
+        Publish(new VillageEvent(VillageEvent.Type.WORKER_DIED, village.getDaysGone(), worker.getName(), village.getFood(), village.getWood(), village.getMetal()));
+    }
+
+    @Override
+    public void OnProjectCompleted(Village village, Project project) {
+        Publish(new VillageEvent(VillageEvent.Type.PROJECT_COMPLETED, village.getDaysGone(), project.getName(), village.getFood(), village.getWood(), village.getMetal()));
+    }
+
+    @Override
+    public void OnVictory(Village village) {
+        Publish(new VillageEvent(VillageEvent.Type.CASTLE_COMPLETED, village.getDaysGone(), null, village.getFood(), village.getWood(), village.getMetal()));
+    }
+
+    @Override
+    public void OnProjectAdded(Village village, Project project, int woodCost, int metalCost) {
+        PublishResourcesIfChanged(village);
+    }
+
+    @Override
+    public void OnDayEnd(Village village) {
+        PublishResourcesIfChanged(village);
+    }
+
+    private void PublishResourcesIfChanged(Village village) {
+        int food = village.getFood();
+        int wood = village.getWood();
+        int metal = village.getMetal();
+        int[] last = lastResources.computeIfAbsent(village, key -> NewResources());
+        synchronized (last) {
+            if (food == last[0] && wood == last[1] && metal == last[2]) {
+                return;
+            }
+            last[0] = food;
+            last[1] = wood;
+            last[2] = metal;
+        }
+        Publish(new VillageEvent(VillageEvent.Type.RESOURCES_CHANGED, village.getDaysGone(), null, food, wood, metal));
+    }
+
+    private static int[] NewResources() {
+        return new int[] {Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE};
+    }
+
+    // Completes every subscriber once it has received the events already buffered for it.
+    @Override
+    public void close() {
+        closed = true;
+        for (EventSubscription subscription : subscriptions) {
+            subscription.Complete();
+        }
+    }
+
+    private final class EventSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super VillageEvent> subscriber;
+        private final ArrayDeque<VillageEvent> buffer = new ArrayDeque<>();
+        private long demand = 0;
+        private boolean draining = false;
+        private boolean cancelled = false;
+        private boolean completing = false;
+        private boolean completed = false;
+
+        EventSubscription(Flow.Subscriber<? super VillageEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void Offer(VillageEvent event) {
+            synchronized (this) {
+                if (cancelled || completing) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize && !MakeRoom(event)) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                buffer.addLast(event);
+            }
+            ScheduleDrain();
+        }
+
+        // Called with the lock held and a full buffer. Returns false if the new event should be dropped.
+        private boolean MakeRoom(VillageEvent event) {
+            switch (policy) {
+                case COALESCE -> {
+                    Iterator<VillageEvent> queued = event.getType() == VillageEvent.Type.RESOURCES_CHANGED ? buffer.descendingIterator() : buffer.iterator();
+                    while (queued.hasNext()) {
+                        if (queued.next().getType() == VillageEvent.Type.RESOURCES_CHANGED) {
+                            queued.remove();
+                            dropped.incrementAndGet();
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                case BLOCK -> {
+                    long deadline = System.nanoTime() + blockTimeoutNanos;
+                    long remaining = blockTimeoutNanos;
+                    while (buffer.size() >= bufferSize && !cancelled && remaining > 0) {
+                        try {
+                            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return false;
+                        }
+                        remaining = deadline - System.nanoTime();
+                    }
+                    return buffer.size() < bufferSize && !cancelled;
+                }
+                default -> {
+                    return false;
+                }
+            }
+        }
+
+        void Complete() {
+            synchronized (this) {
+                completing = true;
+            }
+            ScheduleDrain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("Requested " + n + " events, must be positive"));
+                return;
+            }
+            synchronized (this) {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            ScheduleDrain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                buffer.clear();
+                notifyAll();
+            }
+            subscriptions.remove(this);
+        }
+
+        private void ScheduleDrain() {
+            synchronized (this) {
+                if (draining || cancelled || completed || !(demand > 0 && !buffer.isEmpty() || completing && buffer.isEmpty())) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                executor.execute(this::Drain);
+            } catch (RejectedExecutionException e) {
+                Fail(e);
+            }
+        }
+
+        // Cancels the subscription and tells the subscriber why (Flow rule 2.13). Nothing is delivered after this.
+        private void Fail(Throwable error) {
+            cancel();
+            synchronized (this) {
+                draining = false;
+            }
+            try {
+                subscriber.onError(error);
+            } catch (RuntimeException ignored) {
+                // A subscriber that throws from onError breaks the protocol; there is no one left to tell.
+            }
+        }
+
+        private void Drain() {
+            while (true) {
+                VillageEvent next;
+                synchronized (this) {
+                    if (cancelled) {
+                        draining = false;
+                        return;
+                    }
+                    if (buffer.isEmpty() && completing) {
+                        completed = true;
+                        draining = false;
+                        subscriptions.remove(this);
+                        break;
+                    }
+                    if (buffer.isEmpty() || demand == 0) {
+                        draining = false;
+                        return;
+                    }
+                    next = buffer.pollFirst();
+                    if (demand != Long.MAX_VALUE) {
+                        demand--;
+                    }
+                    notifyAll();
+                }
+                try {
+                    subscriber.onNext(next);
+                } catch (Throwable error) {
+                    Fail(error);
+                    return;
+                }
+            }
+            subscriber.onComplete();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Binary columnar export. Layout, all little endian:
+//   header: int magic "VOTC", short version, then the day and event column names (count, then each as short length + UTF-8)
+//   blocks: byte tag (1 = days, 2 = events), int rows, then each column in turn:
+//           int columns as rows ints, byte columns as rows bytes, the subject column as rows + 1 int offsets and the UTF-8 data
+//   end:    byte tag 0
+public class ColumnarRunExporter extends RunExporter {
+    public static final int MAGIC = 0x43544F56;
+    public static final short VERSION = 1;
+    public static final byte DAY_BLOCK = 1;
+    public static final byte EVENT_BLOCK = 2;
+    public static final byte END = 0;
+
+    private final FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    public ColumnarRunExporter(Path file) throws IOException {
+        this(file, 4096);
+    }
+
+    public ColumnarRunExporter(Path file, int rowsPerBatch) throws IOException {
+        super(rowsPerBatch);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(MAGIC).putShort(VERSION);
+        PutNames(ExportBatch.DAY_COLUMNS);
+        PutNames(ExportBatch.EVENT_COLUMNS);
+        Drain();
+        Start();
+    }
+
+    private void PutNames(String[] names) {
+        buffer.putShort((short) names.length);
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) bytes.length).put(bytes);
+        }
+    }
+
+    @Override
+    protected void WriteBatch(ExportBatch batch) throws IOException {
+        if (batch.dayRows > 0) {
+            int rows = batch.dayRows;
+            Ensure(5 + rows * (9 * 4 + 1));
+            buffer.put(DAY_BLOCK).putInt(rows);
+            PutInts(batch.day, rows);
+            PutInts(batch.food, rows);
+            PutInts(batch.wood, rows);
+            PutInts(batch.metal, rows);
+            PutInts(batch.workers, rows);
+            PutInts(batch.alive, rows);
+            PutInts(batch.hungry, rows);
+            PutInts(batch.projects, rows);
+            PutInts(batch.maxWorkers, rows);
+            buffer.put(batch.gameOver, 0, rows);
+            Drain();
+        }
+        if (batch.eventRows > 0) {
+            int rows = batch.eventRows;
+            byte[][] subjects = new byte[rows][];
+            int subjectBytes = 0;
+            for (int i = 0; i < rows; i++) {
+                subjects[i] = batch.eventSubject[i].getBytes(StandardCharsets.UTF_8);
+                subjectBytes += subjects[i].length;
+            }
+            Ensure(5 + rows * (3 * 4 + 1) + (rows + 1) * 4 + subjectBytes);
+            buffer.put(EVENT_BLOCK).putInt(rows);
+            PutInts(batch.eventDay, rows);
+            buffer.put(batch.eventKind, 0, rows);
+            int offset = 0;
+            buffer.putInt(offset);
+            for (byte[] subject : subjects) {
+                offset += subject.length;
+                buffer.putInt(offset);
+            }
+            for (byte[] subject : subjects) {
+                buffer.put(subject);
+            }
+            PutInts(batch.eventWood, rows);
+            PutInts(batch.eventMetal, rows);
+            Drain();
+        }
+    }
+
+    @Override
+    protected void Finish() throws IOException {
+        try {
+            buffer.put(END);
+            Drain();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void PutInts(int[] column, int rows) {
+        buffer.asIntBuffer().put(column, 0, rows);
+        buffer.position(buffer.position() + rows * 4);
+    }
+
+    // Makes sure the (drained) buffer can hold a whole block.
+    private void Ensure(int bytes) {
+        if (buffer.capacity() < bytes) {
+            buffer = ByteBuffer.allocateDirect(Integer.highestOneBit(bytes) << 1).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private void Drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
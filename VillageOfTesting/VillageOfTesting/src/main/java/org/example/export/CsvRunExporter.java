@@ -0,0 +1,59 @@
+package org.example.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Plain text fallback for tools that cannot read the columnar format: one CSV file for days and one for events.
+public class CsvRunExporter extends RunExporter {
+    private final BufferedWriter days;
+    private final BufferedWriter events;
+
+    public CsvRunExporter(Path daysFile, Path eventsFile) throws IOException {
+        this(daysFile, eventsFile, 1024);
+    }
+
+    public CsvRunExporter(Path daysFile, Path eventsFile, int rowsPerBatch) throws IOException {
+        super(rowsPerBatch);
+        days = Files.newBufferedWriter(daysFile, StandardCharsets.UTF_8);
+        events = Files.newBufferedWriter(eventsFile, StandardCharsets.UTF_8);
+        days.write(String.join(",", ExportBatch.DAY_COLUMNS));
+        days.newLine();
+        events.write(String.join(",", ExportBatch.EVENT_COLUMNS));
+        events.newLine();
+        Start();
+    }
+
+    @Override
+    protected void WriteBatch(ExportBatch batch) throws IOException {
+        for (int i = 0; i < batch.dayRows; i++) {
+            days.write(batch.day[i] + "," + batch.food[i] + "," + batch.wood[i] + "," + batch.metal[i] + ","
+                    + batch.workers[i] + "," + batch.alive[i] + "," + batch.hungry[i] + "," + batch.projects[i] + ","
+                    + batch.maxWorkers[i] + "," + batch.gameOver[i]);
+            days.newLine();
+        }
+        for (int i = 0; i < batch.eventRows; i++) {
+            events.write(batch.eventDay[i] + "," + ExportBatch.KindName(batch.eventKind[i]) + "," + Quote(batch.eventSubject[i])
+                    + "," + batch.eventWood[i] + "," + batch.eventMetal[i]);
+            events.newLine();
+        }
+    }
+
+    @Override
+    protected void Finish() throws IOException {
+        try {
+            days.close();
+        } finally {
+            events.close();
+        }
+    }
+
+    private static String Quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
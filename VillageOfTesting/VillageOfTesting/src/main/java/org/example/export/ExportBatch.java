@@ -0,0 +1,76 @@
+package org.example.export;
+
+// One batch of exported rows, stored column by column. Batches are recycled between the simulation and the writer thread.
+public class ExportBatch {
+    public static final byte STARVATION = 0;
+    public static final byte COMPLETION = 1;
+    public static final byte PROJECT_ADDED = 2;
+
+    public static final String[] DAY_COLUMNS = {"day", "food", "wood", "metal", "workers", "alive", "hungry", "projects", "maxWorkers", "gameOver"};
+    public static final String[] EVENT_COLUMNS = {"day", "kind", "subject", "wood", "metal"};
+
+    final int capacity;
+
+    int dayRows = 0;
+    final int[] day;
+    final int[] food;
+    final int[] wood;
+    final int[] metal;
+    final int[] workers;
+    final int[] alive;
+    final int[] hungry;
+    final int[] projects;
+    final int[] maxWorkers;
+    final byte[] gameOver;
+
+    int eventRows = 0;
+    final int[] eventDay;
+    final byte[] eventKind;
+    final String[] eventSubject;
+    final int[] eventWood;
+    final int[] eventMetal;
+
+    ExportBatch(int capacity) {
+        this.capacity = capacity;
+        day = new int[capacity];
+        food = new int[capacity];
+        wood = new int[capacity];
+        metal = new int[capacity];
+        workers = new int[capacity];
+        alive = new int[capacity];
+        hungry = new int[capacity];
+        projects = new int[capacity];
+        maxWorkers = new int[capacity];
+        gameOver = new byte[capacity];
+        eventDay = new int[capacity];
+        eventKind = new byte[capacity];
+        eventSubject = new String[capacity];
+        eventWood = new int[capacity];
+        eventMetal = new int[capacity];
+    }
+
+    boolean isFull() {
+        return dayRows == capacity || eventRows == capacity;
+    }
+
+    boolean isEmpty() {
+        return dayRows == 0 && eventRows == 0;
+    }
+
+    void Clear() {
+        dayRows = 0;
+        for (int i = 0; i < eventRows; i++) {
+            eventSubject[i] = null;
+        }
+        eventRows = 0;
+    }
+
+    public static String KindName(byte kind) {
+        return switch (kind) {
+            case STARVATION -> "starvation";
+            case COMPLETION -> "completion";
+            case PROJECT_ADDED -> "projectAdded";
+            default -> "unknown";
+        };
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.export;
+
+import org.example.Village;
+import org.example.VillageHistory;
+import org.example.interfaces.IVillageListener;
+import org.example.objects.Project;
+import org.example.objects.Worker;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Streams per-day state and events of a village to a file. Rows are collected into column batches on the
+// simulation thread and written by a background thread, so a tick only pays for a few array stores. Full
+// batches are handed over through a small bounded queue; if the writer falls behind the simulation waits
+// rather than dropping rows. A failed export never fails the tick: the rows are dropped from then on and the error
+// is kept for getFailure and close. Register with Village.AddListener and close when the run is over; callbacks
+// after close are ignored.
+public abstract class RunExporter implements IVillageListener, AutoCloseable {
+    private static final int BATCHES = 4;
+
+    private final ArrayBlockingQueue<ExportBatch> full = new ArrayBlockingQueue<>(BATCHES);
+    private final ArrayBlockingQueue<ExportBatch> free = new ArrayBlockingQueue<>(BATCHES);
+    private final ExportBatch endOfRun = new ExportBatch(0);
+    private final Thread writer;
+    private final int rowsPerBatch;
+    private ExportBatch current;
+    private volatile IOException failure;
+    private volatile boolean closed = false;
+
+    protected RunExporter(int rowsPerBatch) {
+        this.rowsPerBatch = rowsPerBatch;
+        for (int i = 1; i < BATCHES; i++) {
+            free.add(new ExportBatch(rowsPerBatch));
+        }
+        current = new ExportBatch(rowsPerBatch);
+        writer = new Thread(this::WriteLoop, "run-exporter");
+        writer.setDaemon(true);
+    }
+
+    // Called by subclasses once their output is open.
+    protected void Start() {
+        writer.start();
+    }
+
+    protected abstract void WriteBatch(ExportBatch batch) throws IOException;
+
+    protected abstract void Finish() throws IOException;
+
+    @Override
+    public void OnDayEnd(Village village) {
+        if (closed) {
+            return;
+        }
+        ExportBatch batch = current;
+        int row = batch.dayRows++;
+        VillageHistory history = village.getHistory();
+        int latest = history.getRecentCount() - 1;
+        batch.day[row] = village.getDaysGone();
+        batch.food[row] = village.getFood();
+        batch.wood[row] = village.getWood();
+        batch.metal[row] = village.getMetal();
+        batch.workers[row] = village.getWorkers().size();
+        batch.alive[row] = latest >= 0 ? history.getRecent(latest, VillageHistory.ALIVE) : 0;
+        batch.hungry[row] = latest >= 0 ? history.getRecent(latest, VillageHistory.HUNGRY) : 0;
+        batch.projects[row] = village.getProjects().size();
+        batch.maxWorkers[row] = village.getMaxWorkers();
+        batch.gameOver[row] = (byte) (village.isGameOver() ? 1 : 0);
+        FlushIfFull();
+    }
+
+    @Override
+    public void OnWorkerDied(Village village, Worker worker) {
+        AddEvent(village, ExportBatch.STARVATION, worker.getName(), 0, 0);
+    }
+
+    @Override
+    public void OnProjectCompleted(Village village, Project project) {
+        AddEvent(village, ExportBatch.COMPLETION, project.getName(), 0, 0);
+    }
+
+    @Override
+    public void OnProjectAdded(Village village, Project project, int woodCost, int metalCost) {
+        AddEvent(village, ExportBatch.PROJECT_ADDED, project.getName(), woodCost, metalCost);
+    }
+
+    private void AddEvent(Village village, byte kind, String subject, int wood, int metal) {
+        if (closed) {
+            return;
+        }
+        ExportBatch batch = current;
+        int row = batch.eventRows++;
+        batch.eventDay[row] = village.getDaysGone();
+        batch.eventKind[row] = kind;
+        batch.eventSubject[row] = subject;
+        batch.eventWood[row] = wood;
+        batch.eventMetal[row] = metal;
+        FlushIfFull();
+    }
+
+    private void FlushIfFull() {
+        if (current.isFull()) {
+            Flush();
+        }
+    }
+
+    private void Flush() {
+        if (failure != null) {
+            current.Clear();
+            return;
+        }
+        boolean handedOver = false;
+        try {
+            full.put(current);
+            handedOver = true;
+            current = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new IOException("Interrupted while handing a batch to the export writer", e);
+            if (handedOver) {
+                current = new ExportBatch(rowsPerBatch);
+            } else {
+                current.Clear();
+            }
+        }
+    }
+
+    // The first error of the export, or null while it is healthy.
+    public IOException getFailure() {
+        return failure;
+    }
+
+    // After a write error the loop keeps recycling batches without writing them, so the simulation never blocks
+    // on a dead writer. Runtime exceptions from a subclass
+    // are treated the same way, as the thread dying would leave the simulation waiting for a free batch forever.
+    private void WriteLoop() {
+        try {
+            while (true) {
+                ExportBatch batch = full.take();
+                if (batch == endOfRun) {
+                    break;
+                }
+                if (failure == null) {
+                    try {
+                        WriteBatch(batch);
+                    } catch (IOException e) {
+                        failure = e;
+                    } catch (RuntimeException e) {
+                        failure = new IOException("Could not write a batch", e);
+                    }
+                }
+                batch.Clear();
+                free.put(batch);
+            }
+            try {
+                Finish();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = new IOException("Could not finish the export", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writes the remaining rows and waits for the writer to finish.
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (!current.isEmpty() && failure == null) {
+                full.put(current);
+            }
+            full.put(endOfRun);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing the exporter", e);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -1,5 +0,0 @@
-package org.example.interfaces;
-
-public interface ICompleteAction {
-    void UponCompletion();
-}
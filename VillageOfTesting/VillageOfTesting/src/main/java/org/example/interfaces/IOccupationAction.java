@@ -1,5 +0,0 @@
-package org.example.interfaces;
-
-public interface IOccupationAction {
-    void Work(String name);
-}
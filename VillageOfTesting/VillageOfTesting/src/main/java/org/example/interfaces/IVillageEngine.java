@@ -0,0 +1,15 @@
+package org.example.interfaces;
+
+// The player-visible behaviour of a village, so different implementations can be run side by side.
+public interface IVillageEngine {
+    boolean AddWorker(String name, String occupation);
+
+    void AddProject(String name);
+
+    void Day();
+
+    void SetResources(int food, int wood, int metal);
+
+    // Canonical text form of the full game state; two engines agree when their descriptions are equal.
+    String Describe();
+}
@@ -0,0 +1,23 @@
+package org.example.interfaces;
+
+import org.example.Village;
+import org.example.objects.Project;
+import org.example.objects.Worker;
+
+// Notified synchronously by the village on the simulation thread, so implementations should return quickly.
+public interface IVillageListener {
+    default void OnProjectAdded(Village village, Project project, int woodCost, int metalCost) {
+    }
+
+    default void OnProjectCompleted(Village village, Project project) {
+    }
+
+    default void OnWorkerDied(Village village, Worker worker) {
+    }
+
+    default void OnVictory(Village village) {
+    }
+
+    default void OnDayEnd(Village village) {
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.interfaces;
+
+// Worker state for columnar villages, addressed by index in hiring order.
+// Occupation is the village's own id for the job and produces is the Occupation code of what it produces.
+public interface IWorkerStore {
+    long size();
+
+    long getAliveCount();
+
+    long Add(String name, int occupation, int produces);
+
+    String getName(long index);
+
+    int getOccupation(long index);
+
+    boolean isAlive(long index);
+
+    boolean isHungry(long index);
+
+    int getDaysHungry(long index);
+
+    // Feeds the first living workers while food lasts, then works or starves everyone, following Worker.DoWork.
+    // Returns the amount of food eaten.
+    long FeedAndWork(long food, int daysUntilStarvation);
+
+    // The first worker at or after from that worked in the last FeedAndWork and produces the given code, or -1.
+    long NextWorking(long from, int produces);
+
+    // Adds the number of workers in [from, to) that worked in the last FeedAndWork to counts, by produces code.
+    void CountWorking(long from, long to, long[] counts);
+}
@@ -0,0 +1,36 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("org.example.Command")
+@Label("Command")
+@Category("Village of Testing")
+@Description("The work of a menu command in VillageInput, timed after its prompts are answered so typing is not counted")
+@Threshold("5 ms")
+@StackTrace(false)
+public class CommandEvent extends jdk.jfr.Event {
+    @Label("Command")
+    String command;
+
+    public static CommandEvent Start(String command) {
+        CommandEvent event = new CommandEvent();
+        if (event.isEnabled()) {
+            event.command = command;
+            event.begin();
+        }
+        return event;
+    }
+
+    // Stops the clock and commits only if the event is enabled and outlasted its threshold.
+    public void Finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
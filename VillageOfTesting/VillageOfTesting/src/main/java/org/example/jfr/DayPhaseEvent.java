@@ -0,0 +1,56 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("org.example.DayPhase")
+@Label("Day Phase")
+@Category("Village of Testing")
+@Description("One phase (feed, work or build) of Village.Day() that took longer than the threshold. Builders take their "
+        + "turn among the other workers, so a build phase is one builder's turn at the head project.")
+@Threshold("1 ms")
+@StackTrace(false)
+public class DayPhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Day")
+    int day;
+
+    @Label("Workers")
+    int workers;
+
+    // Checked before allocating, so a day costs no garbage while nobody records this event.
+    private static final EventType TYPE = EventType.getEventType(DayPhaseEvent.class);
+    private static final DayPhaseEvent DISABLED = new DayPhaseEvent();
+
+    public static DayPhaseEvent Start(String phase, int day, int workers) {
+        if (!TYPE.isEnabled()) {
+            return DISABLED;
+        }
+        DayPhaseEvent event = new DayPhaseEvent();
+        if (event.isEnabled()) {
+            event.phase = phase;
+            event.day = day;
+            event.workers = workers;
+            event.begin();
+        }
+        return event;
+    }
+
+    // Stops the clock and commits only if the event is enabled and outlasted its threshold.
+    public void Finish() {
+        if (this == DISABLED) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("org.example.ProjectCompletion")
+@Label("Project Completion")
+@Category("Village of Testing")
+@Description("Running the completion effect of a finished project")
+@Threshold("1 ms")
+@StackTrace(false)
+public class ProjectCompletionEvent extends jdk.jfr.Event {
+    @Label("Project")
+    String project;
+
+    // Completions are rare, but the build phase must stay allocation-free when JFR is off as well.
+    private static final EventType TYPE = EventType.getEventType(ProjectCompletionEvent.class);
+    private static final ProjectCompletionEvent DISABLED = new ProjectCompletionEvent();
+
+    public static ProjectCompletionEvent Start(String project) {
+        if (!TYPE.isEnabled()) {
+            return DISABLED;
+        }
+        ProjectCompletionEvent event = new ProjectCompletionEvent();
+        if (event.isEnabled()) {
+            event.project = project;
+            event.begin();
+        }
+        return event;
+    }
+
+    // Stops the clock and commits only if the event is enabled and outlasted its threshold.
+    public void Finish() {
+        if (this == DISABLED) {
+            return;
+        }
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("org.example.Starvation")
+@Label("Starvation")
+@Category("Village of Testing")
+@Description("A worker died of hunger")
+@StackTrace(false)
+public class StarvationEvent extends jdk.jfr.Event {
+    @Label("Worker")
+    String worker;
+
+    @Label("Occupation")
+    String occupation;
+
+    @Label("Days Hungry")
+    int daysHungry;
+
+    private static final EventType TYPE = EventType.getEventType(StarvationEvent.class);
+
+    // Lets callers skip building the event's fields, such as a generated worker name, while nobody records it.
+    public static boolean isRecording() {
+        return TYPE.isEnabled();
+    }
+
+    public static void Emit(String worker, String occupation, int daysHungry) {
+        StarvationEvent event = new StarvationEvent();
+        if (event.shouldCommit()) {
+            event.worker = worker;
+            event.occupation = occupation;
+            event.daysHungry = daysHungry;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.kernel;
+
+import org.example.interfaces.IWorkerStore;
+
+import java.util.Arrays;
+
+// Workers as int arrays on the heap, ticked by TickKernel.
+public class ArrayWorkerStore implements IWorkerStore {
+    private int count = 0;
+    private int living = 0;
+    private String[] names = new String[8];
+    private int[] occupation = new int[8];
+    private int[] produces = new int[8];
+    private int[] alive = new int[8];
+    private int[] hungry = new int[8];
+    private int[] daysHungry = new int[8];
+    private int[] works = new int[8];
+
+    @Override
+    public long size() {
+        return count;
+    }
+
+    @Override
+    public long getAliveCount() {
+        return living;
+    }
+
+    @Override
+    public long Add(String name, int occupation, int produces) {
+        if (count == alive.length) {
+            int capacity = count * 2;
+            names = Arrays.copyOf(names, capacity);
+            this.occupation = Arrays.copyOf(this.occupation, capacity);
+            this.produces = Arrays.copyOf(this.produces, capacity);
+            alive = Arrays.copyOf(alive, capacity);
+            hungry = Arrays.copyOf(hungry, capacity);
+            daysHungry = Arrays.copyOf(daysHungry, capacity);
+            works = Arrays.copyOf(works, capacity);
+        }
+        names[count] = name;
+        this.occupation[count] = occupation;
+        this.produces[count] = produces;
+        alive[count] = 1;
+        hungry[count] = 0;
+        daysHungry[count] = 0;
+        works[count] = 0;
+        living++;
+        return count++;
+    }
+
+    @Override
+    public String getName(long index) {
+        return names[(int) index];
+    }
+
+    @Override
+    public int getOccupation(long index) {
+        return occupation[(int) index];
+    }
+
+    @Override
+    public boolean isAlive(long index) {
+        return alive[(int) index] != 0;
+    }
+
+    @Override
+    public boolean isHungry(long index) {
+        return hungry[(int) index] != 0;
+    }
+
+    @Override
+    public int getDaysHungry(long index) {
+        return daysHungry[(int) index];
+    }
+
+    @Override
+    public long FeedAndWork(long food, int daysUntilStarvation) {
+        int cutoff = TickKernel.FeedCutoff(alive, count, (int) Math.min(food, Integer.MAX_VALUE));
+        long eaten = food > 0 ? Math.min(food, living) : 0;
+        living = TickKernel.FeedAndWork(alive, hungry, daysHungry, works, count, cutoff, daysUntilStarvation);
+        return eaten;
+    }
+
+    @Override
+    public long NextWorking(long from, int code) {
+        for (int i = (int) from; i < count; i++) {
+            if (works[i] != 0 && produces[i] == code) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void CountWorking(long from, long to, long[] counts) {
+        TickKernel.CountWorking(works, produces, (int) from, (int) to, counts);
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.kernel;
+
+import org.example.catalog.Catalog;
+import org.example.catalog.Effect;
+import org.example.catalog.Occupation;
+import org.example.interfaces.IEffectTarget;
+import org.example.interfaces.IVillageEngine;
+import org.example.interfaces.IWorkerStore;
+import org.example.objects.PossibleProject;
+import org.example.objects.Project;
+import org.example.objects.Worker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+// A village whose workers are kept in an IWorkerStore of primitive columns and ticked a whole column at a
+// time instead of one Worker object at a time. Plays by the same rules as Village, which DifferentialHarness checks.
+public class ColumnarVillage implements IVillageEngine, IEffectTarget {
+    private final Catalog catalog;
+    private boolean gameOver = false;
+    private int food = 10;
+    private int wood = 0;
+    private int metal = 0;
+    private int metalPerDay = 1;
+    private int woodPerDay = 1;
+    private int foodPerDay = 5;
+    private int maxWorkers = 6;
+    private int daysGone = 0;
+
+    private final IWorkerStore workers;
+    private final String[] occupationNames;
+    private final HashMap<String, Integer> occupationIds = new HashMap<>();
+    private final long[] working = new long[4];
+
+    private final ArrayList<Project> projects = new ArrayList<>();
+    private final ArrayList<String> buildings = new ArrayList<>();
+
+    public ColumnarVillage() {
+        this(Catalog.getDefault(), new ArrayWorkerStore());
+    }
+
+    public ColumnarVillage(Catalog catalog, IWorkerStore workers) {
+        this.catalog = catalog;
+        this.workers = workers;
+        occupationNames = catalog.getOccupations().keySet().toArray(new String[0]);
+        for (int i = 0; i < occupationNames.length; i++) {
+            occupationIds.put(occupationNames[i], i);
+        }
+        buildings.add("House");
+        buildings.add("House");
+        buildings.add("House");
+    }
+
+    @Override
+    public boolean AddWorker(String name, String occupation) {
+        if (workers.size() >= maxWorkers) {
+            return false;
+        }
+        Occupation job = catalog.getOccupations().get(occupation);
+        if (job == null) {
+            return false;
+        }
+        workers.Add(name, occupationIds.get(occupation), job.getProduces());
+        return true;
+    }
+
+    @Override
+    public void AddProject(String name) {
+        PossibleProject possible = catalog.getProjects().get(name);
+        if (possible != null && wood >= possible.getWoodCost() && metal >= possible.getMetalCost()) {
+            wood -= possible.getWoodCost();
+            metal -= possible.getMetalCost();
+            projects.add(possible.GetProject());
+        }
+    }
+
+    @Override
+    public void Day() {
+        food -= (int) workers.FeedAndWork(food, Worker.daysUntilStarvation);
+
+        // Builders work in list order, and a finished project can raise a rate for the workers after the
+        // builder that finished it, so production is summed per stretch between completions.
+        long from = 0;
+        long builder = projects.isEmpty() ? -1 : workers.NextWorking(0, Occupation.BUILD);
+        while (builder >= 0 && !projects.isEmpty()) {
+            if (projects.get(0).BuildOn()) {
+                Produce(from, builder);
+                from = builder + 1;
+                Project done = projects.remove(0);
+                buildings.add(done.getName());
+                ApplyEffect(done.getEffect());
+            }
+            builder = workers.NextWorking(builder + 1, Occupation.BUILD);
+        }
+        Produce(from, workers.size());
+
+        daysGone++;
+        if (workers.getAliveCount() == 0 && workers.size() > 0) {
+            gameOver = true;
+        }
+    }
+
+    private void Produce(long from, long to) {
+        Arrays.fill(working, 0);
+        workers.CountWorking(from, to, working);
+        food += (int) (working[Occupation.FOOD] * foodPerDay);
+        wood += (int) (working[Occupation.WOOD] * woodPerDay);
+        metal += (int) (working[Occupation.METAL] * metalPerDay);
+    }
+
+    @Override
+    public void ApplyEffect(int effect) {
+        int amount = Effect.Operand(effect);
+        switch (Effect.Opcode(effect)) {
+            case Effect.ADD_MAX_WORKERS -> maxWorkers += amount;
+            case Effect.ADD_FOOD_PER_DAY -> foodPerDay += amount;
+            case Effect.ADD_WOOD_PER_DAY -> woodPerDay += amount;
+            case Effect.ADD_METAL_PER_DAY -> metalPerDay += amount;
+            case Effect.WIN -> gameOver = true;
+        }
+    }
+
+    @Override
+    public void SetResources(int food, int wood, int metal) {
+        this.food = food;
+        this.wood = wood;
+        this.metal = metal;
+    }
+
+    @Override
+    public String Describe() {
+        StringBuilder state = new StringBuilder();
+        state.append("day=").append(daysGone).append(" over=").append(gameOver)
+                .append(" food=").append(food).append(" wood=").append(wood).append(" metal=").append(metal)
+                .append(" max=").append(maxWorkers)
+                .append(" rates=").append(foodPerDay).append('/').append(woodPerDay).append('/').append(metalPerDay)
+                .append("\nworkers:");
+        for (long i = 0; i < workers.size(); i++) {
+            state.append(' ').append(workers.getName(i)).append(':').append(occupationNames[workers.getOccupation(i)]).append(':')
+                    .append(workers.isAlive(i) ? "alive" : "dead").append(':').append(workers.isHungry(i) ? "hungry" : "fed")
+                    .append(':').append(workers.getDaysHungry(i));
+        }
+        state.append("\nprojects:");
+        for (Project project : projects) {
+            state.append(' ').append(project.getName()).append(':').append(project.getDaysLeft());
+        }
+        state.append("\nbuildings:");
+        for (String building : buildings) {
+            state.append(' ').append(building);
+        }
+        return state.toString();
+    }
+
+    public int getFood() {
+        return food;
+    }
+    public int getWood() {
+        return wood;
+    }
+    public int getMetal() {
+        return metal;
+    }
+    public int getDaysGone() {
+        return daysGone;
+    }
+    public boolean isGameOver() {
+        return gameOver;
+    }
+    public IWorkerStore getWorkers() {
+        return workers;
+    }
+}
@@ -0,0 +1,250 @@
+package org.example.kernel;
+
+import org.example.interfaces.IWorkerStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+// Workers as fixed-width records outside the Java heap, so the garbage collector never has to trace them.
+// Records and names live in chunks of direct memory, or of a memory-mapped file when the population is
+// bigger than RAM. Each record is 16 bytes:
+//   0  flags: 1 alive, 2 hungry, 4 worked in the last tick
+//   1  produces code
+//   2  occupation id (short)
+//   4  days hungry (int)
+//   8  offset of the name in the name chunks, or -1 for no name (long)
+// A name is stored as a 2 byte length and its UTF-8 bytes, and never spans two chunks.
+// Not thread safe.
+public class OffHeapWorkerStore implements IWorkerStore, AutoCloseable {
+    private static final int RECORD = 16;
+    private static final int ALIVE = 1;
+    private static final int HUNGRY = 2;
+    private static final int WORKED = 4;
+    private static final int RECORD_BITS = 22;
+    private static final int RECORDS_PER_CHUNK = 1 << RECORD_BITS;
+    private static final int NAME_CHUNK = 1 << 24;
+
+    private final FileChannel records;
+    private final FileChannel names;
+    private final ArrayList<ByteBuffer> recordChunks = new ArrayList<>();
+    private final ArrayList<ByteBuffer> nameChunks = new ArrayList<>();
+    private long count = 0;
+    private long living = 0;
+    private long nameEnd = 0;
+
+    // Records in direct memory.
+    public OffHeapWorkerStore() {
+        records = null;
+        names = null;
+    }
+
+    // Records in file, names next to it in file + ".names". Both files are overwritten.
+    public OffHeapWorkerStore(Path file) throws IOException {
+        records = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        names = FileChannel.open(file.resolveSibling(file.getFileName() + ".names"), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Makes sure chunks.get(chunkIndex) has at least minSize bytes. Chunks start small and double up to
+    // fullSize, so a store with few workers stays small; a mapped chunk is remapped over the same file region.
+    private static void Ensure(ArrayList<ByteBuffer> chunks, FileChannel channel, int chunkIndex, int minSize, int fullSize) {
+        ByteBuffer old = chunkIndex < chunks.size() ? chunks.get(chunkIndex) : null;
+        if (old != null && old.capacity() >= minSize) {
+            return;
+        }
+        int size = old == null ? Math.min(fullSize, 1 << 14) : old.capacity();
+        while (size < minSize) {
+            size = Math.min(fullSize, size * 2);
+        }
+        ByteBuffer chunk;
+        if (channel == null) {
+            chunk = ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+            if (old != null) {
+                chunk.put(0, old, 0, old.capacity());
+            }
+        } else {
+            try {
+                chunk = channel.map(FileChannel.MapMode.READ_WRITE, (long) chunkIndex * fullSize, size).order(ByteOrder.nativeOrder());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (old == null) {
+            chunks.add(chunk);
+        } else {
+            chunks.set(chunkIndex, chunk);
+        }
+    }
+
+    private ByteBuffer Chunk(long index) {
+        return recordChunks.get((int) (index >>> RECORD_BITS));
+    }
+
+    private static int Offset(long index) {
+        return (int) (index & (RECORDS_PER_CHUNK - 1)) * RECORD;
+    }
+
+    @Override
+    public long size() {
+        return count;
+    }
+
+    @Override
+    public long getAliveCount() {
+        return living;
+    }
+
+    @Override
+    public long Add(String name, int occupation, int produces) {
+        if (occupation < 0 || occupation > Short.MAX_VALUE || produces < 0 || produces > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Occupation or produces code out of range");
+        }
+        Ensure(recordChunks, records, (int) (count >>> RECORD_BITS), Offset(count) + RECORD, RECORDS_PER_CHUNK * RECORD);
+        ByteBuffer chunk = Chunk(count);
+        int at = Offset(count);
+        chunk.put(at, (byte) ALIVE);
+        chunk.put(at + 1, (byte) produces);
+        chunk.putShort(at + 2, (short) occupation);
+        chunk.putInt(at + 4, 0);
+        chunk.putLong(at + 8, name == null ? -1 : PutName(name));
+        living++;
+        return count++;
+    }
+
+    private long PutName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Name too long");
+        }
+        int size = 2 + bytes.length;
+        long start = nameEnd;
+        if (start / NAME_CHUNK != (start + size - 1) / NAME_CHUNK) {
+            start = (start / NAME_CHUNK + 1) * NAME_CHUNK;
+        }
+        while (start / NAME_CHUNK > nameChunks.size()) {
+            Ensure(nameChunks, names, nameChunks.size(), NAME_CHUNK, NAME_CHUNK);
+        }
+        Ensure(nameChunks, names, (int) (start / NAME_CHUNK), (int) (start % NAME_CHUNK) + size, NAME_CHUNK);
+        ByteBuffer chunk = nameChunks.get((int) (start / NAME_CHUNK));
+        int at = (int) (start % NAME_CHUNK);
+        chunk.putShort(at, (short) bytes.length);
+        chunk.put(at + 2, bytes);
+        nameEnd = start + size;
+        return start;
+    }
+
+    @Override
+    public String getName(long index) {
+        long offset = Chunk(index).getLong(Offset(index) + 8);
+        if (offset < 0) {
+            return null;
+        }
+        ByteBuffer chunk = nameChunks.get((int) (offset / NAME_CHUNK));
+        int at = (int) (offset % NAME_CHUNK);
+        byte[] bytes = new byte[chunk.getShort(at)];
+        chunk.get(at + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int getOccupation(long index) {
+        return Chunk(index).getShort(Offset(index) + 2);
+    }
+
+    @Override
+    public boolean isAlive(long index) {
+        return (Chunk(index).get(Offset(index)) & ALIVE) != 0;
+    }
+
+    @Override
+    public boolean isHungry(long index) {
+        return (Chunk(index).get(Offset(index)) & HUNGRY) != 0;
+    }
+
+    @Override
+    public int getDaysHungry(long index) {
+        return Chunk(index).getInt(Offset(index) + 4);
+    }
+
+    // The same arithmetic as TickKernel.FeedAndWork, on the packed flags.
+    @Override
+    public long FeedAndWork(long food, int daysUntilStarvation) {
+        long eaten = food > 0 ? Math.min(food, living) : 0;
+        long fedLeft = eaten;
+        long stillAlive = 0;
+        for (int c = 0; c < recordChunks.size(); c++) {
+            ByteBuffer chunk = recordChunks.get(c);
+            int used = (int) Math.min(RECORDS_PER_CHUNK, count - ((long) c << RECORD_BITS));
+            for (int r = 0, at = 0; r < used; r++, at += RECORD) {
+                int flags = chunk.get(at);
+                int a = flags & ALIVE;
+                // 1 while there is food left for this worker.
+                int canEat = (int) ((-fedLeft) >>> 63);
+                int fed = a & canEat;
+                fedLeft -= fed;
+                int h = (flags >> 1) & 1 & (fed ^ 1);
+                int days = chunk.getInt(at + 4) & (fed - 1);
+                int starving = a & h;
+                days += starving;
+                int dies = starving & ((daysUntilStarvation - 1 - days) >>> 31);
+                int works = a & (h ^ 1);
+                a &= dies ^ 1;
+                chunk.put(at, (byte) (a | (h | (flags & ALIVE)) << 1 | works << 2));
+                chunk.putInt(at + 4, days);
+                stillAlive += a;
+            }
+        }
+        living = stillAlive;
+        return eaten;
+    }
+
+    @Override
+    public long NextWorking(long from, int produces) {
+        for (long i = from; i < count; i++) {
+            ByteBuffer chunk = Chunk(i);
+            int at = Offset(i);
+            if ((chunk.get(at) & WORKED) != 0 && chunk.get(at + 1) == produces) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void CountWorking(long from, long to, long[] counts) {
+        for (long i = from; i < to; i++) {
+            ByteBuffer chunk = Chunk(i);
+            int at = Offset(i);
+            int code = chunk.get(at + 1);
+            if (code < counts.length) {
+                counts[code] += (chunk.get(at) >> 2) & 1;
+            }
+        }
+    }
+
+    // Writes mapped chunks back to their files. Direct memory is released when the store is collected.
+    @Override
+    public void close() throws IOException {
+        if (records != null) {
+            for (ByteBuffer chunk : recordChunks) {
+                ((MappedByteBuffer) chunk).force();
+            }
+            for (ByteBuffer chunk : nameChunks) {
+                ((MappedByteBuffer) chunk).force();
+            }
+            records.close();
+            names.close();
+        }
+        recordChunks.clear();
+        nameChunks.clear();
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.kernel;
+
+// The feed and hunger part of a day over primitive worker columns, one int per worker and flag (0 or 1).
+// The per-worker loops are straight-line integer arithmetic with no branches or calls, so HotSpot's
+// superword pass can vectorise them; the only sequential step is finding where the food runs out.
+public final class TickKernel {
+    private TickKernel() {
+    }
+
+    // Workers are fed in list order while food lasts, so the fed workers are exactly the living workers
+    // before the returned index. That index is count when everyone alive can eat.
+    public static int FeedCutoff(int[] alive, int count, int food) {
+        if (food <= 0) {
+            return 0;
+        }
+        int fed = 0;
+        for (int i = 0; i < count; i++) {
+            fed += alive[i];
+            if (fed == food) {
+                return i + 1;
+            }
+        }
+        return count;
+    }
+
+    // Feeds the living workers before cutoff, then works or starves everyone: a fed worker works and
+    // becomes hungry, a hungry one counts another day and dies at daysUntilStarvation. Dead workers are
+    // left as they are. Writes 1 into works for every worker that works today and returns how many of
+    // the workers are still alive.
+    public static int FeedAndWork(int[] alive, int[] hungry, int[] daysHungry, int[] works, int count, int cutoff, int daysUntilStarvation) {
+        int living = 0;
+        for (int i = 0; i < count; i++) {
+            int a = alive[i];
+            // 1 for workers before the cutoff, 0 after it.
+            int before = (i - cutoff) >>> 31;
+            int fed = a & before;
+            int h = hungry[i] & (fed ^ 1);
+            int days = daysHungry[i] & (fed - 1);
+            int starving = a & h;
+            days += starving;
+            // 1 when days >= daysUntilStarvation.
+            int dies = starving & ((daysUntilStarvation - 1 - days) >>> 31);
+            works[i] = a & (h ^ 1);
+            hungry[i] = h | a;
+            daysHungry[i] = days;
+            a &= dies ^ 1;
+            alive[i] = a;
+            living += a;
+        }
+        return living;
+    }
+
+    // Adds the number of working workers per occupation code in [from, to) to counts.
+    public static void CountWorking(int[] works, int[] occupation, int from, int to, long[] counts) {
+        for (int code = 0; code < counts.length; code++) {
+            int sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += works[i] & (((occupation[i] ^ code) - 1) >>> 31);
+            }
+            counts[code] += sum;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.load;
+
+// Log-linear histogram of nanosecond latencies in the style of HdrHistogram: values are grouped by
+// their highest set bit and each group is split into linear slots, so every recorded value keeps
+// a relative error below 2^-(precisionBits - 1) regardless of magnitude.
+// Not thread safe; give each thread its own and Add them together afterwards.
+public class LatencyHistogram {
+    private static final int GROUPS = 64;
+
+    private final int precisionBits;
+    private final int subBuckets;
+    private final long[] counts;
+    private long count;
+    private long max;
+    private long min = Long.MAX_VALUE;
+    private double total;
+
+    public LatencyHistogram() {
+        this(7);
+    }
+
+    public LatencyHistogram(int precisionBits) {
+        if (precisionBits < 1 || precisionBits > 16) {
+            throw new IllegalArgumentException("precisionBits must be between 1 and 16");
+        }
+        this.precisionBits = precisionBits;
+        subBuckets = 1 << precisionBits;
+        counts = new long[subBuckets + (GROUPS - precisionBits) * (subBuckets / 2)];
+    }
+
+    public void Record(long value) {
+        Record(value, 1);
+    }
+
+    public void Record(long value, long times) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[Index(value)] += times;
+        count += times;
+        total += (double) value * times;
+        if (value > max) {
+            max = value;
+        }
+        if (value < min) {
+            min = value;
+        }
+    }
+
+    public void Add(LatencyHistogram other) {
+        if (other.precisionBits != precisionBits) {
+            throw new IllegalArgumentException("Histograms have different precision");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+        min = Math.min(min, other.min);
+    }
+
+    public void Reset() {
+        java.util.Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+        min = Long.MAX_VALUE;
+    }
+
+    // The smallest recorded value (within the histogram's precision) that at least the given
+    // percentage of recorded values do not exceed.
+    public long Percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(HighestEquivalent(i), max);
+            }
+        }
+        return max;
+    }
+
+    private int Index(long value) {
+        if (value < subBuckets) {
+            return (int) value;
+        }
+        int group = 63 - Long.numberOfLeadingZeros(value) - precisionBits + 1;
+        int slot = (int) (value >>> group) - subBuckets / 2;
+        return subBuckets + (group - 1) * (subBuckets / 2) + slot;
+    }
+
+    private long HighestEquivalent(int index) {
+        if (index < subBuckets) {
+            return index;
+        }
+        int group = (index - subBuckets) / (subBuckets / 2) + 1;
+        long slot = (index - subBuckets) % (subBuckets / 2) + subBuckets / 2;
+        return ((slot + 1) << group) - 1;
+    }
+
+    public long getCount() {
+        return count;
+    }
+    public long getMax() {
+        return max;
+    }
+    public long getMin() {
+        return count == 0 ? 0 : min;
+    }
+    public double getMean() {
+        return count == 0 ? 0 : total / count;
+    }
+}
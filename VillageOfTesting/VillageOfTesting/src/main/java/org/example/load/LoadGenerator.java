@@ -0,0 +1,252 @@
+package org.example.load;
+
+import org.example.Village;
+
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+// Open-loop load generator: replays a weighted mix of player commands against many in-process
+// villages at a fixed target rate. Every command has an intended start time on the schedule, so a
+// slow command delays the ones behind it and that waiting shows up in the corrected latencies
+// instead of being hidden (coordinated omission).
+public class LoadGenerator {
+    public enum Operation {
+        DAY, ADD_WORKER, ADD_PROJECT
+    }
+
+    private static final String[] OCCUPATIONS = {"farmer", "lumberjack", "miner", "builder"};
+    private static final String[] PROJECTS = {"House", "Woodmill", "Quarry", "Farm", "Castle"};
+    private static final int OPERATIONS = Operation.values().length;
+
+    public static class Result {
+        private final LatencyHistogram[] service = new LatencyHistogram[OPERATIONS];
+        private final LatencyHistogram[] response = new LatencyHistogram[OPERATIONS];
+        private long elapsedNanos;
+
+        Result() {
+            for (int i = 0; i < OPERATIONS; i++) {
+                service[i] = new LatencyHistogram();
+                response[i] = new LatencyHistogram();
+            }
+        }
+
+        void Add(Result other) {
+            for (int i = 0; i < OPERATIONS; i++) {
+                service[i].Add(other.service[i]);
+                response[i].Add(other.response[i]);
+            }
+        }
+
+        // Time spent executing the command itself.
+        public LatencyHistogram getService(Operation operation) {
+            return service[operation.ordinal()];
+        }
+        // Time from the command's intended start on the schedule until it finished.
+        public LatencyHistogram getResponse(Operation operation) {
+            return response[operation.ordinal()];
+        }
+        // Wall time from the end of the warm-up until the last command finished. Longer than the configured
+        // duration when the generator fell behind its schedule.
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LatencyHistogram histogram : service) {
+                count += histogram.getCount();
+            }
+            return count;
+        }
+
+        public String Report() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format(Locale.ROOT, "%-12s %-9s %10s %10s %10s %10s %10s%n",
+                    "operation", "latency", "count", "p50 us", "p99 us", "p99.9 us", "max us"));
+            for (Operation operation : Operation.values()) {
+                Row(report, operation.name(), "service", getService(operation));
+                Row(report, "", "response", getResponse(operation));
+            }
+            double seconds = elapsedNanos / 1e9;
+            report.append(String.format(Locale.ROOT, "%d commands in %.1f s (%.0f per second)%n",
+                    getCount(), seconds, seconds > 0 ? getCount() / seconds : 0));
+            return report.toString();
+        }
+
+        private static void Row(StringBuilder report, String operation, String kind, LatencyHistogram histogram) {
+            report.append(String.format(Locale.ROOT, "%-12s %-9s %10d %10.1f %10.1f %10.1f %10.1f%n",
+                    operation, kind, histogram.getCount(),
+                    histogram.Percentile(50) / 1e3, histogram.Percentile(99) / 1e3,
+                    histogram.Percentile(99.9) / 1e3, histogram.getMax() / 1e3));
+        }
+    }
+
+    private int villages = 1000;
+    private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private long ratePerSecond = 100000;
+    private long durationNanos = 10_000_000_000L;
+    private long warmupNanos = 2_000_000_000L;
+    private long seed = 1;
+    private final int[] weights = {80, 10, 10};
+
+    public LoadGenerator setVillages(int villages) {
+        this.villages = villages;
+        return this;
+    }
+    public LoadGenerator setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+    public LoadGenerator setRatePerSecond(long ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+        return this;
+    }
+    public LoadGenerator setDurationMillis(long millis) {
+        durationNanos = millis * 1000000;
+        return this;
+    }
+    public LoadGenerator setWarmupMillis(long millis) {
+        warmupNanos = millis * 1000000;
+        return this;
+    }
+    public LoadGenerator setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+    public LoadGenerator setWeight(Operation operation, int weight) {
+        weights[operation.ordinal()] = weight;
+        return this;
+    }
+
+    // Parses a mix such as "day=80,worker=10,project=10".
+    public LoadGenerator setMix(String mix) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            weights[i] = 0;
+        }
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight but got: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            switch (pair[0].trim().toLowerCase(Locale.ROOT)) {
+                case "day" -> weights[Operation.DAY.ordinal()] = weight;
+                case "worker" -> weights[Operation.ADD_WORKER.ordinal()] = weight;
+                case "project" -> weights[Operation.ADD_PROJECT.ordinal()] = weight;
+                default -> throw new IllegalArgumentException("Unknown operation: " + pair[0]);
+            }
+        }
+        return this;
+    }
+
+    public Result Run() throws InterruptedException {
+        int totalWeight = 0;
+        for (int weight : weights) {
+            totalWeight += weight;
+        }
+        if (totalWeight <= 0 || ratePerSecond <= 0 || threads <= 0 || villages < threads) {
+            throw new IllegalStateException("Need a positive mix, rate and at least one village per thread");
+        }
+        // Every thread runs its own schedule at an equal share of the rate over its own villages.
+        long interval = Math.max(1, threads * 1_000_000_000L / ratePerSecond);
+        long start = System.nanoTime() + 10_000_000;
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        Result[] results = new Result[threads];
+        ArrayList<Thread> running = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            results[t] = new Result();
+            int total = totalWeight;
+            Thread thread = new Thread(() -> Drive(index, total, interval, start + index * interval / threads, measureFrom, end, results[index]), "load-" + t);
+            thread.start();
+            running.add(thread);
+        }
+        for (Thread thread : running) {
+            thread.join();
+        }
+        Result result = new Result();
+        for (Result partial : results) {
+            result.Add(partial);
+        }
+        result.elapsedNanos = Math.max(0, System.nanoTime() - measureFrom);
+        return result;
+    }
+
+    private void Drive(int index, int totalWeight, long interval, long start, long measureFrom, long end, Result result) {
+        ArrayList<Village> own = new ArrayList<>();
+        for (int i = index; i < villages; i += threads) {
+            own.add(NewVillage());
+        }
+        SplittableRandom random = new SplittableRandom(seed * 31 + index);
+        long intended = start;
+        while (intended < end) {
+            long now = System.nanoTime();
+            if (now < intended) {
+                if (intended - now > 50000) {
+                    LockSupport.parkNanos(intended - now - 20000);
+                }
+                while (System.nanoTime() < intended) {
+                    Thread.onSpinWait();
+                }
+            }
+            int slot = random.nextInt(own.size());
+            Village village = own.get(slot);
+            Operation operation = Pick(random.nextInt(totalWeight));
+            long begin = System.nanoTime();
+            switch (operation) {
+                case DAY -> village.Day();
+                case ADD_WORKER -> village.AddWorkers(OCCUPATIONS[random.nextInt(OCCUPATIONS.length)], 1);
+                case ADD_PROJECT -> village.AddProject(PROJECTS[random.nextInt(PROJECTS.length)]);
+            }
+            long finish = System.nanoTime();
+            if (intended >= measureFrom) {
+                result.service[operation.ordinal()].Record(finish - begin);
+                result.response[operation.ordinal()].Record(finish - intended);
+            }
+            if (village.isGameOver()) {
+                village.Reset();
+            }
+            intended += interval;
+        }
+    }
+
+    private Operation Pick(int roll) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return Operation.values()[i];
+            }
+        }
+        return Operation.DAY;
+    }
+
+    private static Village NewVillage() {
+        Village village = new Village();
+        village.setQuiet(true);
+        return village;
+    }
+
+    // Usage: LoadGenerator [ratePerSecond] [seconds] [villages] [mix] [threads]
+    public static void main(String[] args) throws InterruptedException {
+        LoadGenerator generator = new LoadGenerator();
+        if (args.length > 0) {
+            generator.setRatePerSecond(Long.parseLong(args[0]));
+        }
+        if (args.length > 1) {
+            generator.setDurationMillis(Long.parseLong(args[1]) * 1000);
+        }
+        if (args.length > 2) {
+            generator.setVillages(Integer.parseInt(args[2]));
+        }
+        if (args.length > 3) {
+            generator.setMix(args[3]);
+        }
+        if (args.length > 4) {
+            generator.setThreads(Integer.parseInt(args[4]));
+        }
+        System.out.print(generator.Run().Report());
+    }
+}
@@ -0,0 +1,230 @@
+package org.example.market;
+
+import org.example.Village;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Barter market between villages for food, wood and metal, using the Occupation resource codes.
+// There is one order book for every pair of resources, e.g. wood priced in metal. Orders are placed through a
+// MarketAccount from the thread that owns the village; the goods or payment are taken from the village at once
+// and held by the market. Placing an order only appends to a lock-free queue, so any number of threads can
+// trade without contending on a lock.
+// Settle() runs at tick boundaries and matches every book: the cheapest sells against the highest buys, at the
+// sell price, and the proceeds, refunds of the price difference and unfilled remainders are added to the
+// accounts' ledgers. Orders are good for one settlement. Each village collects its ledger at its own tick boundary.
+public class Market {
+    public static final int RESOURCES = 3;
+
+    // The sort is stable, so orders at the same price keep the order they were drained in, which is the order
+    // they were placed in.
+    private static final Comparator<Order> CHEAPEST_FIRST = Comparator.comparingInt(o -> o.price);
+    private static final Comparator<Order> HIGHEST_FIRST = Comparator.comparingInt(o -> -o.price);
+
+    private final OrderBook[] books = new OrderBook[RESOURCES * RESOURCES];
+    private final AtomicLongArray ledger;
+    private final int maxAccounts;
+    private final AtomicInteger accounts = new AtomicInteger();
+    private final AtomicBoolean settling = new AtomicBoolean();
+    private final ArrayList<Order> buyScratch = new ArrayList<>();
+    private final ArrayList<Order> sellScratch = new ArrayList<>();
+
+    private final LongAdder ordersPlaced = new LongAdder();
+    // Only written by the settling thread.
+    private volatile long trades = 0;
+    private volatile long unitsTraded = 0;
+    private volatile long settlements = 0;
+
+    public Market(int maxAccounts) {
+        this.maxAccounts = maxAccounts;
+        ledger = new AtomicLongArray(maxAccounts * RESOURCES);
+        for (int resource = 0; resource < RESOURCES; resource++) {
+            for (int currency = 0; currency < RESOURCES; currency++) {
+                if (resource != currency) {
+                    books[resource * RESOURCES + currency] = new OrderBook(resource, currency);
+                }
+            }
+        }
+    }
+
+    public MarketAccount Open() {
+        int slot = accounts.getAndIncrement();
+        if (slot >= maxAccounts) {
+            accounts.decrementAndGet();
+            throw new IllegalStateException("The market is full (" + maxAccounts + " accounts)");
+        }
+        return new MarketAccount(this, slot);
+    }
+
+    static int Book(int resource, int currency) {
+        if (resource < 0 || resource >= RESOURCES || currency < 0 || currency >= RESOURCES || resource == currency) {
+            throw new IllegalArgumentException("Need two different resources out of food, wood and metal");
+        }
+        return resource * RESOURCES + currency;
+    }
+
+    void PlaceBuy(int account, int book, int quantity, int price) {
+        books[book].buys.offer(new Order(account, quantity, price));
+        ordersPlaced.increment();
+    }
+
+    void PlaceSell(int account, int book, int quantity, int price) {
+        books[book].sells.offer(new Order(account, quantity, price));
+        ordersPlaced.increment();
+    }
+
+    void Credit(int account, int resource, long amount) {
+        if (amount != 0) {
+            ledger.addAndGet(account * RESOURCES + resource, amount);
+        }
+    }
+
+    long Take(int account, int resource) {
+        return ledger.getAndSet(account * RESOURCES + resource, 0);
+    }
+
+    // Matches every book once. Only one thread settles at a time; a call made while another settles returns -1
+    // and leaves the orders for the next settlement. Returns the number of trades.
+    public long Settle() {
+        if (!settling.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            long before = trades;
+            for (OrderBook book : books) {
+                if (book != null) {
+                    SettleBook(book);
+                }
+            }
+            settlements++;
+            return trades - before;
+        } finally {
+            settling.set(false);
+        }
+    }
+
+    private void SettleBook(OrderBook book) {
+        int resource = book.resource;
+        int currency = book.currency;
+        Drain(book.buys, buyScratch);
+        Drain(book.sells, sellScratch);
+        buyScratch.sort(HIGHEST_FIRST);
+        sellScratch.sort(CHEAPEST_FIRST);
+        int b = 0;
+        int s = 0;
+        while (b < buyScratch.size() && s < sellScratch.size()) {
+            Order buy = buyScratch.get(b);
+            Order sell = sellScratch.get(s);
+            if (buy.price < sell.price) {
+                break;
+            }
+            int quantity = Math.min(buy.remaining, sell.remaining);
+            Credit(buy.account, resource, quantity);
+            Credit(sell.account, currency, (long) quantity * sell.price);
+            // The buyer paid its own price into escrow and gets the difference back.
+            Credit(buy.account, currency, (long) quantity * (buy.price - sell.price));
+            buy.remaining -= quantity;
+            sell.remaining -= quantity;
+            trades++;
+            unitsTraded += quantity;
+            if (buy.remaining == 0) {
+                b++;
+            }
+            if (sell.remaining == 0) {
+                s++;
+            }
+        }
+        for (; b < buyScratch.size(); b++) {
+            Order buy = buyScratch.get(b);
+            Credit(buy.account, currency, (long) buy.remaining * buy.price);
+        }
+        for (; s < sellScratch.size(); s++) {
+            Order sell = sellScratch.get(s);
+            Credit(sell.account, resource, sell.remaining);
+        }
+        buyScratch.clear();
+        sellScratch.clear();
+    }
+
+    private static void Drain(ConcurrentLinkedQueue<Order> queue, ArrayList<Order> into) {
+        Order order;
+        while ((order = queue.poll()) != null) {
+            into.add(order);
+        }
+    }
+
+    public long getOrdersPlaced() {
+        return ordersPlaced.sum();
+    }
+    public long getTrades() {
+        return trades;
+    }
+    public long getUnitsTraded() {
+        return unitsTraded;
+    }
+    public long getSettlements() {
+        return settlements;
+    }
+
+    // Usage: Market [threads] [seconds] [ordersPerTick]. Each thread plays a village that places a batch of orders
+    // per tick and collects after the next settlement, while the main thread settles as often as it can.
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 5;
+        int ordersPerTick = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        Market market = new Market(threads);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ArrayList<Thread> traders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            Thread trader = new Thread(() -> {
+                MarketAccount account = market.Open();
+                Village village = new Village();
+                village.setQuiet(true);
+                SplittableRandom random = new SplittableRandom(seed);
+                while (running.get()) {
+                    village.setFood(1000000);
+                    village.setWood(1000000);
+                    village.setMetal(1000000);
+                    for (int i = 0; i < ordersPerTick; i++) {
+                        int resource = random.nextInt(RESOURCES);
+                        int currency = (resource + 1 + random.nextInt(RESOURCES - 1)) % RESOURCES;
+                        int price = 1 + random.nextInt(5);
+                        if (random.nextBoolean()) {
+                            account.Buy(village, resource, 1, currency, price);
+                        } else {
+                            account.Sell(village, resource, 1, currency, price);
+                        }
+                    }
+                    long settled = market.getSettlements();
+                    while (market.getSettlements() == settled && running.get()) {
+                        Thread.yield();
+                    }
+                    account.Collect(village);
+                }
+            }, "trader-" + t);
+            traders.add(trader);
+            trader.start();
+        }
+        long start = System.nanoTime();
+        long end = start + seconds * 1000000000L;
+        while (System.nanoTime() < end) {
+            market.Settle();
+            Thread.yield();
+        }
+        running.set(false);
+        for (Thread trader : traders) {
+            trader.join();
+        }
+        market.Settle();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%.0f orders per second, %d trades of %d units in %d settlements%n", market.getOrdersPlaced() / elapsed,
+                market.getTrades(), market.getUnitsTraded(), market.getSettlements());
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.market;
+
+import org.example.Village;
+import org.example.catalog.Occupation;
+import org.example.interfaces.IVillageListener;
+
+// One village's place in a Market. Buy and Sell take what they offer from the village straight away, so they
+// must run on the thread that owns the village, like any other command. Collect moves everything the market
+// owes the village into it; adding the account as a listener does that at the end of every day.
+public class MarketAccount implements IVillageListener {
+    private final Market market;
+    private final int slot;
+
+    MarketAccount(Market market, int slot) {
+        this.market = market;
+        this.slot = slot;
+    }
+
+    // Offers to buy quantity of resource for up to price of currency each. Returns false, placing nothing,
+    // if the village cannot pay quantity * price up front.
+    public boolean Buy(Village village, int resource, int quantity, int currency, int price) {
+        int book = Market.Book(resource, currency);
+        if (quantity <= 0 || price <= 0) {
+            return false;
+        }
+        long cost = (long) quantity * price;
+        if (Get(village, currency) < cost) {
+            return false;
+        }
+        Set(village, currency, (int) (Get(village, currency) - cost));
+        market.PlaceBuy(slot, book, quantity, price);
+        return true;
+    }
+
+    // Offers quantity of resource for at least price of currency each. Returns false, placing nothing,
+    // if the village does not have quantity of the resource.
+    public boolean Sell(Village village, int resource, int quantity, int currency, int price) {
+        int book = Market.Book(resource, currency);
+        if (quantity <= 0 || price <= 0 || Get(village, resource) < quantity) {
+            return false;
+        }
+        Set(village, resource, Get(village, resource) - quantity);
+        market.PlaceSell(slot, book, quantity, price);
+        return true;
+    }
+
+    public void Collect(Village village) {
+        for (int resource = 0; resource < Market.RESOURCES; resource++) {
+            long amount = market.Take(slot, resource);
+            if (amount != 0) {
+                // Whatever does not fit in the village stays owed for a later collect.
+                long fits = Math.min(amount, Integer.MAX_VALUE - (long) Get(village, resource));
+                Set(village, resource, (int) (Get(village, resource) + fits));
+                market.Credit(slot, resource, amount - fits);
+            }
+        }
+    }
+
+    @Override
+    public void OnDayEnd(Village village) {
+        Collect(village);
+    }
+
+    private static int Get(Village village, int resource) {
+        return switch (resource) {
+            case Occupation.FOOD -> village.getFood();
+            case Occupation.WOOD -> village.getWood();
+            case Occupation.METAL -> village.getMetal();
+            default -> throw new IllegalArgumentException("Unknown resource " + resource);
+        };
+    }
+
+    private static void Set(Village village, int resource, int amount) {
+        switch (resource) {
+            case Occupation.FOOD -> village.setFood(amount);
+            case Occupation.WOOD -> village.setWood(amount);
+            case Occupation.METAL -> village.setMetal(amount);
+            default -> throw new IllegalArgumentException("Unknown resource " + resource);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.market;
+
+// A limit order for quantity units at price units of the book's currency each. Only the settling thread changes
+// remaining, after the order has been taken off its queue.
+final class Order {
+    final int account;
+    final int price;
+    int remaining;
+
+    Order(int account, int quantity, int price) {
+        this.account = account;
+        this.remaining = quantity;
+        this.price = price;
+    }
+}
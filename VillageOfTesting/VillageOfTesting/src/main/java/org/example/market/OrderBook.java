@@ -0,0 +1,16 @@
+package org.example.market;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// The orders for one resource priced in another, waiting for the next settlement.
+final class OrderBook {
+    final int resource;
+    final int currency;
+    final ConcurrentLinkedQueue<Order> buys = new ConcurrentLinkedQueue<>();
+    final ConcurrentLinkedQueue<Order> sells = new ConcurrentLinkedQueue<>();
+
+    OrderBook(int resource, int currency) {
+        this.resource = resource;
+        this.currency = currency;
+    }
+}
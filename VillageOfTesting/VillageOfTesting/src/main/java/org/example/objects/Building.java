@@ -1,5 +1,7 @@
 package org.example.objects;
 
+// The catalog hands the same instance to every village and every list slot, so a plain Building is never changed.
+// Only a Project, which belongs to one village, is renamed when it is recycled.
 public class Building {
     private String name;
 
@@ -10,7 +12,7 @@ public class Building {
     public String getName() {
         return name;
     }
-    public void setName(String name) {
+    protected void setName(String name) {
         this.name = name;
     }
 }
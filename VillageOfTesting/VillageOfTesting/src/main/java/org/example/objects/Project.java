@@ -1,18 +1,28 @@
 package org.example.objects;
 
-import org.example.interfaces.ICompleteAction;
+import org.example.interfaces.IEffectTarget;
+import org.example.jfr.ProjectCompletionEvent;
 
 public class Project extends Building {
     private int daysLeft;
-    private ICompleteAction completeAction;
+    private int effect;
 
-    public Project(String name, int daysLeft, ICompleteAction completeAction) {
+    public Project(String name, int daysLeft, int effect) {
         super(name);
         this.daysLeft = daysLeft;
-        this.completeAction = completeAction;
+        this.effect = effect;
     }
-    public void Complete() {
-        completeAction.UponCompletion();
+
+    // Reinitialises a recycled project from its template.
+    public void Reset(PossibleProject possibleProject) {
+        setName(possibleProject.getName());
+        daysLeft = possibleProject.getDaysToComplete();
+        effect = possibleProject.getEffect();
+    }
+    public void Complete(IEffectTarget target) {
+        ProjectCompletionEvent event = ProjectCompletionEvent.Start(getName());
+        target.ApplyEffect(effect);
+        event.Finish();
     }
 
     public int getDaysLeft() {
@@ -22,11 +32,11 @@ public class Project extends Building {
         this.daysLeft = daysLeft;
     }
 
-    public ICompleteAction getCompleteAction() {
-        return completeAction;
+    public int getEffect() {
+        return effect;
     }
-    public void setCompleteAction(ICompleteAction completeAction) {
-        this.completeAction = completeAction;
+    public void setEffect(int effect) {
+        this.effect = effect;
     }
 
     public boolean BuildOn() {
@@ -1,41 +1,63 @@
 package org.example.objects;
 
-import org.example.interfaces.IOccupationAction;
+import org.example.jfr.StarvationEvent;
 
 public class Worker {
     public static int daysUntilStarvation = 5;
     private String name;
+    private int number;
+    // True once the name was given rather than generated from the number.
+    private boolean named;
     private String occupation;
-    private IOccupationAction occupationAction;
+    private int produces;
     private boolean hungry;
     private boolean alive;
     private int daysHungry;
 
-    public Worker(String name, String occupation, IOccupationAction occupationAction) {
+    public Worker(String name, String occupation, int produces) {
+        Reset(name, occupation, produces);
+    }
+
+    // Reinitialises a worker so a recycled instance is indistinguishable from a new one.
+    public void Reset(String name, String occupation, int produces) {
+        Reset(name, 0, occupation, produces);
+    }
+
+    // A worker hired in bulk has no name until someone asks for it; it is then generated from the number.
+    public void ResetUnnamed(int number, String occupation, int produces) {
+        Reset(null, number, occupation, produces);
+    }
+
+    private void Reset(String name, int number, String occupation, int produces) {
         this.name = name;
+        this.number = number;
+        named = name != null;
         this.occupation = occupation;
-        this.occupationAction = occupationAction;
+        this.produces = produces;
         hungry = false;
         alive = true;
         daysHungry = 0;
     }
 
-    public void DoWork() {
+    // Returns true if the worker is fed and does their job today; the village then applies what they produce.
+    public boolean DoWork() {
         if (!alive) {
-            System.out.println(name + " is not alive and cannot work...");
-            return;
+            return false;
         }
         if (!hungry) {
-            occupationAction.Work(name);
             hungry = true;
+            return true;
         }
         else {
             daysHungry++;
             if (daysHungry >= daysUntilStarvation) {
                 alive = false;
-                System.out.println(getName() + " has died of hunger!");
+                if (StarvationEvent.isRecording()) {
+                    StarvationEvent.Emit(getName(), occupation, daysHungry);
+                }
             }
         }
+        return false;
     }
 
     public void Feed() {
@@ -46,10 +68,21 @@ public class Worker {
     }
 
     public String getName() {
+        if (name == null) {
+            name = Character.toUpperCase(occupation.charAt(0)) + occupation.substring(1) + " " + number;
+        }
         return name;
     }
     public void setName(String name) {
         this.name = name;
+        named = name != null;
+    }
+    public boolean isNamed() {
+        return named;
+    }
+    // The number a bulk-hired worker's name is generated from, or 0 for a worker hired by name.
+    public int getNumber() {
+        return number;
     }
     public String getOccupation() {
         return occupation;
@@ -58,11 +91,11 @@ public class Worker {
     public void setOccupation(String occupation) {
         this.occupation = occupation;
     }
-    public IOccupationAction getOccupationAction() {
-        return occupationAction;
+    public int getProduces() {
+        return produces;
     }
-    public void setOccupationAction(IOccupationAction occupationAction) {
-        this.occupationAction = occupationAction;
+    public void setProduces(int produces) {
+        this.produces = produces;
     }
     public boolean isHungry() {
         return hungry;
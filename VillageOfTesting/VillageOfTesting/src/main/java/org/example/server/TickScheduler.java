@@ -0,0 +1,367 @@
+package org.example.server;
+
+import org.example.shard.ConsistentHashRing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+// Advances hosted villages on the wall clock, each at its own period.
+//  - Start times are offset by a hash of the id, so villages with the same period don't all tick at once.
+//  - A village that fell behind catches up with one Advance(n) instead of n separate ticks, up to maxCatchUp days.
+//  - The scheduler tracks how late ticks start. When the average lag passes the overload threshold, LOW villages
+//    tick slowFactor times less often; past four times the threshold LOW villages stop ticking and NORMAL
+//    villages are slowed instead. HIGH villages are never slowed.
+// Ticks are submitted to the village's actor, so they queue behind the server's commands instead of overlapping
+// them. A village only ever has one tick in flight: it is re-armed when the actor has run it.
+// A tick that throws unschedules its village and is reported to the failure handler, which prints to stderr
+// unless replaced. A tick the executor rejects is tried again a period later; the village stays scheduled.
+public class TickScheduler implements AutoCloseable {
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final String id;
+        final VillageActor actor;
+        final long period;
+        final Priority priority;
+        long due;
+        boolean cancelled;
+
+        Entry(String id, VillageActor actor, long period, Priority priority, long due) {
+            this.id = id;
+            this.actor = actor;
+            this.period = period;
+            this.priority = priority;
+            this.due = due;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            return Long.compare(due, other.due);
+        }
+    }
+
+    private final Executor executor;
+    private final LongSupplier clock;
+    private final long defaultPeriod;
+    private final long overloadLag;
+    private final int maxCatchUp;
+    private final int slowFactor;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private final HashMap<String, Entry> entries = new HashMap<>();
+    private volatile boolean closed;
+    private volatile BiConsumer<String, RuntimeException> failureHandler =
+            (id, failure) -> System.err.println("Village " + id + " stopped ticking: " + failure);
+
+    // Exponentially weighted average of how late ticks start, in nanoseconds.
+    private volatile long lag;
+    private final AtomicLong maxLag = new AtomicLong();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong catchUpTicks = new AtomicLong();
+    private final AtomicLong skippedTicks = new AtomicLong();
+    private final AtomicLong failedTicks = new AtomicLong();
+    private final AtomicLong rejectedTicks = new AtomicLong();
+
+    public TickScheduler(Executor executor, long period, TimeUnit unit) {
+        this(executor, period, unit, unit.toNanos(period) / 2, TimeUnit.NANOSECONDS, 10, 4);
+    }
+
+    public TickScheduler(Executor executor, long period, TimeUnit unit, long overloadLag, TimeUnit lagUnit, int maxCatchUp, int slowFactor) {
+        this(executor, unit.toNanos(period), lagUnit.toNanos(overloadLag), maxCatchUp, slowFactor, System::nanoTime, true);
+    }
+
+    // With dispatch false there is no dispatcher thread and ticks only start when RunDue is called, which together
+    // with a hand-driven clock makes the scheduler deterministic for tests.
+    TickScheduler(Executor executor, long period, long overloadLag, int maxCatchUp, int slowFactor, LongSupplier clock, boolean dispatch) {
+        if (period <= 0 || maxCatchUp < 1 || slowFactor < 1) {
+            throw new IllegalArgumentException("Period, catch-up and slow factor must be positive");
+        }
+        this.executor = executor;
+        this.clock = clock;
+        this.defaultPeriod = period;
+        this.overloadLag = Math.max(1, overloadLag);
+        this.maxCatchUp = maxCatchUp;
+        this.slowFactor = slowFactor;
+        if (dispatch) {
+            Thread dispatcher = new Thread(this::Dispatch, "tick-scheduler");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+    }
+
+    // Called with the village id and what the tick threw, after the village has been unscheduled.
+    public void setFailureHandler(BiConsumer<String, RuntimeException> failureHandler) {
+        this.failureHandler = failureHandler;
+    }
+
+    public void Schedule(String id, VillageActor actor, Priority priority) {
+        Schedule(id, actor, defaultPeriod, TimeUnit.NANOSECONDS, priority);
+    }
+
+    // Replaces any earlier schedule for the id.
+    public void Schedule(String id, VillageActor actor, long period, TimeUnit unit, Priority priority) {
+        long nanos = unit.toNanos(period);
+        if (nanos <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        long phase = Math.floorMod(ConsistentHashRing.Hash(id), nanos);
+        Entry entry = new Entry(id, actor, nanos, priority, clock.getAsLong() + phase);
+        lock.lock();
+        try {
+            Entry old = entries.put(id, entry);
+            if (old != null) {
+                old.cancelled = true;
+                queue.remove(old);
+            }
+            queue.add(entry);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean Unschedule(String id) {
+        lock.lock();
+        try {
+            Entry entry = entries.remove(id);
+            if (entry == null) {
+                return false;
+            }
+            entry.cancelled = true;
+            queue.remove(entry);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void Dispatch() {
+        while (!closed) {
+            lock.lock();
+            try {
+                Entry next = queue.peek();
+                if (next == null) {
+                    changed.await();
+                    continue;
+                }
+                long wait = next.due - clock.getAsLong();
+                if (wait > 0) {
+                    changed.awaitNanos(wait);
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            RunDue();
+        }
+    }
+
+    // Hands every tick that is due by now to the executor. An entry is out of the queue until its tick re-arms
+    // it, which is what keeps a village to one tick in flight.
+    void RunDue() {
+        List<Entry> due = new ArrayList<>();
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            while (!queue.isEmpty() && queue.peek().due <= now) {
+                due.add(queue.poll());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Entry entry : due) {
+            try {
+                executor.execute(() -> Tick(entry));
+            } catch (RejectedExecutionException e) {
+                // A saturated or shut down executor must not kill the dispatcher or lose the entry.
+                rejectedTicks.incrementAndGet();
+                Retry(entry);
+            }
+        }
+    }
+
+    private void Retry(Entry entry) {
+        lock.lock();
+        try {
+            if (entry.cancelled || closed) {
+                return;
+            }
+            entry.due = clock.getAsLong() + entry.period;
+            queue.add(entry);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void Tick(Entry entry) {
+        long now = clock.getAsLong();
+        long late = now - entry.due;
+        RecordLag(late);
+        int level = getLoadLevel();
+        long period = entry.period;
+        boolean skip = false;
+        if (entry.priority == Priority.LOW && level >= 1) {
+            skip = level >= 2;
+            period *= slowFactor;
+        } else if (entry.priority == Priority.NORMAL && level >= 2) {
+            period *= slowFactor;
+        }
+
+        // Ticks that were due by now, counting the one that started this run.
+        long due = late / entry.period + 1;
+        if (skip) {
+            skippedTicks.addAndGet(due);
+            Rearm(entry, now, due, period, false);
+            return;
+        }
+        int days = (int) Math.min(due, maxCatchUp);
+        skippedTicks.addAndGet(due - days);
+        long rearmPeriod = period;
+        try {
+            entry.actor.Submit(village -> {
+                village.Advance(days);
+                return village.isGameOver();
+            }).whenComplete((over, error) -> Finish(entry, now, due, rearmPeriod, days, over, error));
+        } catch (RuntimeException e) {
+            // The actor's executor refused the turn.
+            Finish(entry, now, due, rearmPeriod, days, null, e);
+        }
+    }
+
+    // Anything but a normal return, game over included, ends the schedule.
+    private void Finish(Entry entry, long now, long due, long period, int days, Boolean over, Throwable error) {
+        if (error == null) {
+            ticks.incrementAndGet();
+            catchUpTicks.addAndGet(days - 1);
+        } else {
+            failedTicks.incrementAndGet();
+        }
+        Rearm(entry, now, due, period, error != null || over);
+        if (error != null) {
+            failureHandler.accept(entry.id, error instanceof RuntimeException failure ? failure : new CompletionException(error));
+        }
+    }
+
+    private void Rearm(Entry entry, long now, long due, long period, boolean stop) {
+        lock.lock();
+        try {
+            if (entry.cancelled || closed) {
+                return;
+            }
+            if (stop) {
+                entries.remove(entry.id, entry);
+                return;
+            }
+            // Re-arm on the original grid so the phase offset survives catching up.
+            entry.due += due * entry.period;
+            if (period > entry.period) {
+                entry.due += period - entry.period;
+            }
+            if (entry.due < now) {
+                entry.due = now;
+            }
+            queue.add(entry);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void RecordLag(long late) {
+        if (late < 0) {
+            late = 0;
+        }
+        // Racy on purpose: a lost update only makes the average slightly less smooth.
+        lag = lag - (lag >> 4) + (late >> 4);
+        maxLag.accumulateAndGet(late, Math::max);
+    }
+
+    // 0 when keeping up, 1 when LOW villages are slowed, 2 when LOW villages are shed and NORMAL ones slowed.
+    public int getLoadLevel() {
+        long current = lag;
+        if (current > overloadLag * 4) {
+            return 2;
+        }
+        return current > overloadLag ? 1 : 0;
+    }
+
+    public long getLag(TimeUnit unit) {
+        return unit.convert(lag, TimeUnit.NANOSECONDS);
+    }
+
+    public long getMaxLag(TimeUnit unit) {
+        return unit.convert(maxLag.get(), TimeUnit.NANOSECONDS);
+    }
+
+    // Runs of Advance, each covering one or more days.
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    // Extra days advanced because a village was behind.
+    public long getCatchUpTicks() {
+        return catchUpTicks.get();
+    }
+
+    // Days that were due but not advanced, because of shedding or the catch-up limit.
+    public long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    // Ticks that threw, each of which unscheduled its village.
+    public long getFailedTicks() {
+        return failedTicks.get();
+    }
+
+    // Ticks the executor refused to run; each was tried again a period later.
+    public long getRejectedTicks() {
+        return rejectedTicks.get();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public String Report() {
+        return "villages=" + size() + " load=" + getLoadLevel() + " lagMs=" + getLag(TimeUnit.MILLISECONDS)
+                + " maxLagMs=" + getMaxLag(TimeUnit.MILLISECONDS) + " ticks=" + getTicks()
+                + " catchUp=" + getCatchUpTicks() + " skipped=" + getSkippedTicks() + " failed=" + getFailedTicks()
+                + " rejected=" + getRejectedTicks();
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            queue.clear();
+            entries.clear();
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
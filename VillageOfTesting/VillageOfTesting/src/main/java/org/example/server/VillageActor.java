@@ -0,0 +1,120 @@
+package org.example.server;
+
+import org.example.Village;
+import org.example.commands.VillageCommand;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+// Owns one village id and applies commands to its village one at a time, in the order they were submitted.
+// Any thread may Submit: that only appends to a lock-free queue and, if the actor is idle, schedules a turn on
+// the executor. A turn applies up to maxBatch commands and then gives the thread back, scheduling another turn
+// if more commands arrived, so one busy village cannot hold an executor thread forever.
+// After each turn the village publishes its status, so getStatus() readers see the commands' effects.
+// The mailbox is the only way in (TickScheduler submits its ticks here too), so turns need no lock on the village.
+// Each turn looks the village up in the registry, which keeps it on the heap for the turn even when the registry
+// hibernates idle villages. Once the id is gone from the registry, commands complete with its exception.
+public class VillageActor {
+    private static final class Pending<T> {
+        final Function<Village, T> action;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+
+        Pending(Function<Village, T> action) {
+            this.action = action;
+        }
+
+        void Run(Village village) {
+            try {
+                result.complete(action.apply(village));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            } catch (Error e) {
+                // Still complete, so whoever waits (a scheduled tick, say) is not stuck forever.
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    private final String id;
+    private final VillageRegistry registry;
+    private final Executor executor;
+    private final int maxBatch;
+    private final ConcurrentLinkedQueue<Pending<?>> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    public VillageActor(String id, VillageRegistry registry, Executor executor) {
+        this(id, registry, executor, 64);
+    }
+
+    public VillageActor(String id, VillageRegistry registry, Executor executor, int maxBatch) {
+        this.id = id;
+        this.registry = registry;
+        this.executor = executor;
+        this.maxBatch = maxBatch;
+    }
+
+    // Completes with the command's JSON result.
+    public CompletableFuture<String> Submit(VillageCommand command) {
+        return Submit(command::Apply);
+    }
+
+    // Completes with what the action returned, or exceptionally with what it threw.
+    public <T> CompletableFuture<T> Submit(Function<Village, T> action) {
+        Pending<T> pending = new Pending<>(action);
+        mailbox.offer(pending);
+        Schedule();
+        return pending.result;
+    }
+
+    private void Schedule() {
+        if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true)) {
+            executor.execute(this::Turn);
+        }
+    }
+
+    private void Turn() {
+        boolean[] started = {false};
+        try {
+            registry.With(id, village -> {
+                started[0] = true;
+                for (int i = 0; i < maxBatch; i++) {
+                    Pending<?> pending = mailbox.poll();
+                    if (pending == null) {
+                        break;
+                    }
+                    pending.Run(village);
+                }
+                village.PublishStatus();
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (started[0]) {
+                throw e;
+            }
+            // No village to run on: fail this turn's share of the mailbox.
+            for (int i = 0; i < maxBatch; i++) {
+                Pending<?> pending = mailbox.poll();
+                if (pending == null) {
+                    break;
+                }
+                pending.result.completeExceptionally(e);
+            }
+        } finally {
+            scheduled.set(false);
+            // A command may have arrived after the last poll but before the flag was cleared.
+            Schedule();
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getQueuedCount() {
+        return mailbox.size();
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.server;
+
+import org.example.Village;
+import org.example.storage.HibernatingVillageCache;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// The villages hosted by one process, by id. Villages are created quiet, as nobody reads the console of a host.
+// Backed by a HibernatingVillageCache, the registry only keeps the ids and idle villages go to disk. Villages
+// can then only be used inside With(), and Get() refuses to hand one out.
+public class VillageRegistry {
+    private final ConcurrentHashMap<String, Village> villages = new ConcurrentHashMap<>();
+    private final Set<String> ids;
+    private final HibernatingVillageCache cache;
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    public VillageRegistry() {
+        ids = villages.keySet();
+        cache = null;
+    }
+
+    public VillageRegistry(HibernatingVillageCache cache) {
+        ids = ConcurrentHashMap.newKeySet();
+        this.cache = cache;
+    }
+
+    public String Create() {
+        String id = Long.toString(nextId.getAndIncrement());
+        Create(id);
+        return id;
+    }
+
+    // Creates a village under a chosen id, or returns false if the id is taken.
+    public boolean Create(String id) {
+        Village village = new Village();
+        village.setQuiet(true);
+        if (cache == null) {
+            return villages.putIfAbsent(id, village) == null;
+        }
+        if (!ids.add(id)) {
+            return false;
+        }
+        cache.Put(id, village);
+        return true;
+    }
+
+    // Runs the action on the village, which stays on the heap until it returns. Throws IllegalArgumentException
+    // for an unknown id.
+    public <R> R With(String id, Function<Village, R> action) {
+        if (cache == null) {
+            Village village = villages.get(id);
+            if (village == null) {
+                throw new IllegalArgumentException("No village " + id);
+            }
+            return action.apply(village);
+        }
+        if (!ids.contains(id)) {
+            throw new IllegalArgumentException("No village " + id);
+        }
+        return cache.With(id, action);
+    }
+
+    public boolean Contains(String id) {
+        return ids.contains(id);
+    }
+
+    public Village Get(String id) {
+        if (cache != null) {
+            throw new IllegalStateException("Villages in a hibernating registry are only reachable through With");
+        }
+        return villages.get(id);
+    }
+
+    public void Put(String id, Village village) {
+        village.setQuiet(true);
+        if (cache == null) {
+            villages.put(id, village);
+            return;
+        }
+        cache.Put(id, village);
+        ids.add(id);
+    }
+
+    public boolean Remove(String id) {
+        if (cache == null) {
+            return villages.remove(id) != null;
+        }
+        if (!ids.remove(id)) {
+            return false;
+        }
+        cache.Remove(id);
+        return true;
+    }
+
+    // See HibernatingVillageCache.setOnRehydrate; never called without a cache, as villages then stay put.
+    public void setOnRehydrate(BiConsumer<String, Village> onRehydrate) {
+        if (cache != null) {
+            cache.setOnRehydrate(onRehydrate);
+        }
+    }
+
+    public Set<String> getIds() {
+        return Collections.unmodifiableSet(ids);
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,344 @@
+package org.example.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.Village;
+import org.example.commands.VillageCommand;
+import org.example.commands.VillageJson;
+import org.example.events.OverflowPolicy;
+import org.example.events.VillageEvent;
+import org.example.events.VillageEventPublisher;
+import org.example.storage.HibernatingVillageCache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+// Local HTTP/JSON control API, so tools can drive villages without the interactive menu.
+//   POST   /villages[?priority=low]     create a village, returns {"id":...}
+//   GET    /villages/{id}               status
+//   GET    /villages/{id}/snapshot      status as of the last day or command, without queueing behind commands
+//   GET    /villages/{id}/events        server-sent events: one JSON VillageEvent per "data:" line, until the village is removed
+//   DELETE /villages/{id}               remove the village
+//   POST   /villages/{id}/advance?days=N
+//   POST   /villages/{id}/workers?name=Bob&occupation=farmer   or ?occupation=farmer&count=10
+//   POST   /villages/{id}/projects?name=House[&count=N]
+//   POST   /villages/{id}/batch         body: one VillageCommand per line, returns {"results":[...]}
+// Every village gets a VillageActor, so commands for one village run one at a time in arrival order while
+// different villages run in parallel.
+// With a TickScheduler set, new villages also advance on their own in real time.
+// Started with -Dvillage.hibernate=<directory>, the server keeps only recently used villages on the heap and writes
+// the rest there (village.maxResident and village.maxResidentWorkers set the limits).
+public class VillageServer {
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final VillageRegistry registry;
+    private final ConcurrentHashMap<String, VillageActor> actors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, VillageEventPublisher> events = new ConcurrentHashMap<>();
+    private volatile TickScheduler scheduler;
+
+    public VillageServer(int port, VillageRegistry registry) throws IOException {
+        this.registry = registry;
+        executor = NewExecutor();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.setExecutor(executor);
+        server.createContext("/villages", this::Handle);
+        // A village read back from disk is a new object, so open event streams must be attached to it again.
+        registry.setOnRehydrate((id, village) -> {
+            VillageEventPublisher publisher = events.get(id);
+            if (publisher != null) {
+                publisher.Watch(village);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        String hibernate = System.getProperty("village.hibernate");
+        VillageRegistry registry = hibernate == null ? new VillageRegistry() : new VillageRegistry(new HibernatingVillageCache(
+                Path.of(hibernate), Integer.getInteger("village.maxResident", 10000), Long.getLong("village.maxResidentWorkers", 1000000)));
+        VillageServer server = new VillageServer(port, registry);
+        long tickMillis = Long.getLong("village.tickMillis", 0);
+        if (tickMillis > 0) {
+            server.setTickScheduler(new TickScheduler(server.executor, tickMillis, TimeUnit.MILLISECONDS));
+        }
+        server.Start();
+        System.out.println("Village server listening on http://127.0.0.1:" + server.getPort() + "/villages");
+    }
+
+    // Virtual threads when the runtime has them (Java 21+), otherwise a cached pool. Looked up reflectively
+    // because the build targets an older release.
+    static ExecutorService NewExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public void Start() {
+        server.start();
+    }
+
+    public void Stop() {
+        for (VillageEventPublisher publisher : events.values()) {
+            publisher.close();
+        }
+        server.stop(0);
+        TickScheduler ticking = scheduler;
+        if (ticking != null) {
+            ticking.close();
+        }
+        executor.shutdown();
+    }
+
+    public void setTickScheduler(TickScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void Handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            // path[0] is empty and path[1] should be "villages": the context also receives paths like /villagesX.
+            String method = exchange.getRequestMethod();
+            if (path.length < 2 || !path[1].equals("villages")) {
+                Send(exchange, 404, VillageJson.Error("Unknown resource " + exchange.getRequestURI().getPath()));
+                return;
+            }
+            if (path.length == 2) {
+                if (method.equals("POST")) {
+                    TickScheduler.Priority priority = TickScheduler.Priority.valueOf(Query(exchange).getOrDefault("priority", "normal").toUpperCase());
+                    String id = registry.Create();
+                    TickScheduler ticking = scheduler;
+                    if (ticking != null) {
+                        ticking.Schedule(id, Actor(id), priority);
+                    }
+                    Send(exchange, 201, "{\"id\":" + VillageJson.Quote(id) + "}");
+                } else {
+                    Send(exchange, 405, VillageJson.Error("Use POST to create a village"));
+                }
+                return;
+            }
+            String id = path[2];
+            if (!registry.Contains(id)) {
+                Send(exchange, 404, VillageJson.Error("No village " + id));
+                return;
+            }
+            if (path.length == 3) {
+                switch (method) {
+                    case "GET" -> Send(exchange, 200, Run(id, VillageCommand.Status()));
+                    case "DELETE" -> {
+                        registry.Remove(id);
+                        actors.remove(id);
+                        VillageEventPublisher publisher = events.remove(id);
+                        if (publisher != null) {
+                            publisher.close();
+                        }
+                        TickScheduler ticking = scheduler;
+                        if (ticking != null) {
+                            ticking.Unschedule(id);
+                        }
+                        Send(exchange, 200, "{\"removed\":" + VillageJson.Quote(id) + "}");
+                    }
+                    default -> Send(exchange, 405, VillageJson.Error("Use GET or DELETE on a village"));
+                }
+                return;
+            }
+            if (method.equals("GET") && path.length == 4 && path[3].equals("snapshot")) {
+                // The status board is safe to read from any thread, so this need not wait for the actor.
+                Send(exchange, 200, VillageJson.Snapshot(registry.With(id, Village::getStatus)));
+                return;
+            }
+            if (method.equals("GET") && path.length == 4 && path[3].equals("events")) {
+                Stream(id, exchange);
+                return;
+            }
+            if (!method.equals("POST") || path.length != 4) {
+                Send(exchange, 404, VillageJson.Error("Unknown resource " + exchange.getRequestURI().getPath()));
+                return;
+            }
+            Map<String, String> query = Query(exchange);
+            switch (path[3]) {
+                case "advance" -> Send(exchange, 200, Run(id, VillageCommand.Advance(Positive(query, "days"))));
+                case "workers" -> {
+                    String occupation = Required(query, "occupation").toLowerCase();
+                    VillageCommand command = query.containsKey("name")
+                            ? VillageCommand.Worker(query.get("name"), occupation)
+                            : VillageCommand.Workers(occupation, Positive(query, "count"));
+                    Send(exchange, 200, Run(id, command));
+                }
+                case "projects" -> Send(exchange, 200, Run(id, VillageCommand.Project(Required(query, "name"), Positive(query, "count"))));
+                case "batch" -> Send(exchange, 200, RunBatch(id, exchange));
+                default -> Send(exchange, 404, VillageJson.Error("Unknown action " + path[3]));
+            }
+        } catch (IllegalArgumentException e) {
+            Send(exchange, 400, VillageJson.Error(e.getMessage()));
+        } catch (RuntimeException e) {
+            Send(exchange, 500, VillageJson.Error(e.toString()));
+        }
+    }
+
+    private VillageActor Actor(String id) {
+        return actors.computeIfAbsent(id, key -> new VillageActor(key, registry, executor));
+    }
+
+    // One publisher per village, shared by all of its streams. It registers with the village inside an actor
+    // turn, so the listener list is never changed while a day runs. The stream's response stays open after the
+    // handler returns and is written from the publisher's executor.
+    private void Stream(String id, HttpExchange exchange) throws IOException {
+        VillageEventPublisher publisher = events.computeIfAbsent(id, key -> new VillageEventPublisher(executor, 256, OverflowPolicy.COALESCE));
+        Await(Actor(id).Submit(target -> Watch(publisher, target)));
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        publisher.subscribe(new EventStream(exchange));
+    }
+
+    private static Void Watch(VillageEventPublisher publisher, Village village) {
+        publisher.Watch(village);
+        return null;
+    }
+
+    private static final class EventStream implements Flow.Subscriber<VillageEvent> {
+        private final HttpExchange exchange;
+        private Flow.Subscription subscription;
+
+        EventStream(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(VillageEvent event) {
+            try {
+                OutputStream out = exchange.getResponseBody();
+                out.write(("data: " + VillageJson.Event(event) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                subscription.request(1);
+            } catch (IOException e) {
+                // The client went away.
+                subscription.cancel();
+                exchange.close();
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            exchange.close();
+        }
+
+        @Override
+        public void onComplete() {
+            exchange.close();
+        }
+    }
+
+    private String Run(String id, VillageCommand command) {
+        return Await(Actor(id).Submit(command));
+    }
+
+    private static <T> T Await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Every line is applied in order in a single actor turn, so no other request can interleave. A bad line
+    // reports an error in its slot and the rest still run.
+    private String RunBatch(String id, HttpExchange exchange) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader body = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = body.readLine()) != null) {
+                if (!line.isBlank()) {
+                    lines.add(line);
+                }
+            }
+        }
+        return Await(Actor(id).Submit(target -> {
+            StringBuilder results = new StringBuilder("{\"results\":[");
+            for (int i = 0; i < lines.size(); i++) {
+                if (i > 0) {
+                    results.append(',');
+                }
+                try {
+                    results.append(VillageCommand.Parse(lines.get(i)).Apply(target));
+                } catch (IllegalArgumentException e) {
+                    results.append(VillageJson.Error(e.getMessage()));
+                }
+            }
+            return results.append("]}").toString();
+        }));
+    }
+
+    private static Map<String, String> Query(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static String Required(Map<String, String> query, String name) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter " + name);
+        }
+        return value;
+    }
+
+    // A count or number of days, 1 if left out.
+    private static int Positive(Map<String, String> query, String name) {
+        int value = Integer.parseInt(query.getOrDefault(name, "1"));
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be at least 1, got " + value);
+        }
+        return value;
+    }
+
+    private static void Send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Maps keys to nodes so that adding or removing a node only moves the keys next to it on the ring. Each node
+// is placed at several points to even out the load.
+public class ConsistentHashRing {
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final int pointsPerNode;
+
+    public ConsistentHashRing(int pointsPerNode) {
+        this.pointsPerNode = pointsPerNode;
+    }
+
+    public void Add(String node) {
+        for (int i = 0; i < pointsPerNode; i++) {
+            ring.put(Hash(node + "#" + i), node);
+        }
+    }
+
+    public void Remove(String node) {
+        for (int i = 0; i < pointsPerNode; i++) {
+            ring.remove(Hash(node + "#" + i), node);
+        }
+    }
+
+    public String Owner(String key) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("No nodes on the ring");
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(Hash(key));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    // 64 bit FNV-1a followed by a murmur finaliser, so similar ids spread over the whole ring.
+    public static long Hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.shard;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+// Request/response line connection from the coordinator to one worker process.
+class ShardConnection implements AutoCloseable {
+    private final Process process;
+    private final Socket socket;
+    private final BufferedReader in;
+    private final BufferedWriter out;
+
+    ShardConnection(Process process, int port) throws IOException {
+        this.process = process;
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    // Returns the payload of an OK response; an ERR response becomes an IllegalArgumentException.
+    synchronized String Request(String line) {
+        String response;
+        try {
+            out.write(line);
+            out.newLine();
+            out.flush();
+            response = in.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Shard worker connection failed", e);
+        }
+        if (response == null) {
+            throw new UncheckedIOException(new IOException("Shard worker closed the connection"));
+        }
+        if (response.startsWith("ERR ")) {
+            throw new IllegalArgumentException(response.substring(4));
+        }
+        return response.substring(3);
+    }
+
+    @Override
+    public void close() {
+        try {
+            Request("shutdown");
+        } catch (RuntimeException e) {
+            // Already gone.
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing left to clean up.
+        }
+        if (process != null) {
+            process.destroy();
+        }
+    }
+}
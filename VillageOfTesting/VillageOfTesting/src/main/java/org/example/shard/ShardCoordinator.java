@@ -0,0 +1,319 @@
+package org.example.shard;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Spreads villages over several local worker JVMs, each running the normal Village engine in a ShardWorker.
+// Village ids are placed on a consistent hash ring; when a worker is added or removed only the villages whose
+// owner changed are exported, imported on their new worker and dropped from the old one. Commands run under a
+// shared lock and rebalancing under an exclusive one, so no command sees a village mid-move. A move that fails
+// leaves every village on its old worker and the ring as it was.
+// A worker that died cannot hand over its villages, so Checkpoint keeps a copy of every village on the coordinator
+// and DropWorker brings a dead worker's villages back from those copies on the remaining workers.
+public class ShardCoordinator implements AutoCloseable {
+    private final ConsistentHashRing ring = new ConsistentHashRing(64);
+    private final Map<String, ShardConnection> shards = new HashMap<>();
+    private final Set<String> villageIds = ConcurrentHashMap.newKeySet();
+    // Exported images from the last Checkpoint, by village id.
+    private final Map<String, String> saved = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong nextVillageId = new AtomicLong(1);
+    private int nextShard = 1;
+    private long lastStatsNanos = System.nanoTime();
+    private long lastStatsDays = 0;
+    private long removedShardDays = 0;
+
+    public static void main(String[] args) throws IOException {
+        int workers = args.length > 0 ? Integer.parseInt(args[0]) : 2;
+        int villages = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        try (ShardCoordinator coordinator = new ShardCoordinator()) {
+            for (int i = 0; i < workers; i++) {
+                coordinator.AddLocalWorker();
+            }
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < villages; i++) {
+                String id = coordinator.Create();
+                coordinator.Send(id, "workers farmer 3");
+                ids.add(id);
+            }
+            coordinator.getTicksPerSecond();
+            for (String id : ids) {
+                coordinator.Send(id, "advance " + days);
+            }
+            System.out.printf("%d villages on %d workers: %.0f ticks/s%n", villages, workers, coordinator.getTicksPerSecond());
+        }
+    }
+
+    // Starts a worker JVM on the same classpath and moves its share of the villages to it. Returns its name.
+    public String AddLocalWorker() throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ShardWorker.class.getName(), "0")
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String ready = output.readLine();
+        if (ready == null || !ready.startsWith("PORT ")) {
+            process.destroy();
+            throw new IOException("Shard worker did not start: " + ready);
+        }
+        // Anything the worker prints later is passed on, so it never blocks on a full pipe.
+        Thread drain = new Thread(() -> Forward(output), "shard-output");
+        drain.setDaemon(true);
+        drain.start();
+        return AddWorker(new ShardConnection(process, Integer.parseInt(ready.substring(5))));
+    }
+
+    private static void Forward(BufferedReader output) {
+        try (output) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                System.out.println(line);
+            }
+        } catch (IOException e) {
+            // The worker is gone.
+        }
+    }
+
+    // Adds a worker that is already running on the given local port.
+    public String AddRemoteWorker(int port) throws IOException {
+        return AddWorker(new ShardConnection(null, port));
+    }
+
+    private String AddWorker(ShardConnection connection) {
+        lock.writeLock().lock();
+        try {
+            String name = "shard-" + nextShard++;
+            shards.put(name, connection);
+            Map<String, String> before = Owners();
+            ring.Add(name);
+            try {
+                Rebalance(before);
+            } catch (RuntimeException e) {
+                ring.Remove(name);
+                shards.remove(name);
+                connection.close();
+                throw e;
+            }
+            return name;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Moves the worker's villages to the remaining workers and shuts it down.
+    public void RemoveWorker(String name) {
+        lock.writeLock().lock();
+        try {
+            if (!shards.containsKey(name)) {
+                throw new IllegalArgumentException("No shard " + name);
+            }
+            if (shards.size() == 1 && !villageIds.isEmpty()) {
+                throw new IllegalStateException("Cannot remove the last shard while it hosts villages");
+            }
+            Map<String, String> before = Owners();
+            ring.Remove(name);
+            try {
+                Rebalance(before);
+            } catch (RuntimeException e) {
+                ring.Add(name);
+                throw e;
+            }
+            ShardConnection removed = shards.remove(name);
+            try {
+                removedShardDays += Long.parseLong(removed.Request("stats").split(" ")[1]);
+            } catch (RuntimeException e) {
+                // Its villages have moved; only its days drop out of getTicksPerSecond.
+            } finally {
+                removed.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Copies every village to the coordinator, for DropWorker. Returns the number of villages saved.
+    public int Checkpoint() {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (String id : villageIds) {
+                saved.put(id, Shard(id).Request("export " + id));
+                count++;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Takes a worker that died out of the ring without asking it for anything, and imports its villages on
+    // their new owners from the last Checkpoint. They lose what happened since. Villages that were never saved,
+    // or that no remaining worker accepts, are forgotten; their ids are returned.
+    public List<String> DropWorker(String name) {
+        lock.writeLock().lock();
+        try {
+            ShardConnection dead = shards.remove(name);
+            if (dead == null) {
+                throw new IllegalArgumentException("No shard " + name);
+            }
+            Map<String, String> before = Owners();
+            ring.Remove(name);
+            dead.close();
+            List<String> lost = new ArrayList<>();
+            for (Map.Entry<String, String> entry : before.entrySet()) {
+                if (!entry.getValue().equals(name)) {
+                    continue;
+                }
+                String id = entry.getKey();
+                String image = saved.get(id);
+                try {
+                    if (image == null || ring.isEmpty()) {
+                        throw new IllegalStateException("No copy of village " + id);
+                    }
+                    Shard(id).Request("import " + id + " " + image);
+                } catch (RuntimeException e) {
+                    villageIds.remove(id);
+                    saved.remove(id);
+                    lost.add(id);
+                }
+            }
+            return lost;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Map<String, String> Owners() {
+        Map<String, String> owners = new HashMap<>();
+        if (!ring.isEmpty()) {
+            for (String id : villageIds) {
+                owners.put(id, ring.Owner(id));
+            }
+        }
+        return owners;
+    }
+
+    // Copies every village whose owner changed to its new worker, and only once all copies are in place drops
+    // the originals. If a copy fails, the copies made so far are dropped again and the exception is rethrown, so
+    // the caller can put the ring back and every village is still on its old worker. A failed drop only leaves a
+    // stale copy behind, which commands never reach and a later import overwrites.
+    private void Rebalance(Map<String, String> before) {
+        List<String> moved = new ArrayList<>();
+        try {
+            for (Map.Entry<String, String> entry : before.entrySet()) {
+                String id = entry.getKey();
+                String owner = ring.Owner(id);
+                if (!owner.equals(entry.getValue())) {
+                    String image = shards.get(entry.getValue()).Request("export " + id);
+                    shards.get(owner).Request("import " + id + " " + image);
+                    moved.add(id);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (String id : moved) {
+                TryRequest(shards.get(ring.Owner(id)), "drop " + id);
+            }
+            throw e;
+        }
+        for (String id : moved) {
+            TryRequest(shards.get(before.get(id)), "drop " + id);
+        }
+    }
+
+    private static void TryRequest(ShardConnection shard, String request) {
+        try {
+            shard.Request(request);
+        } catch (RuntimeException e) {
+            // See Rebalance.
+        }
+    }
+
+    public String Create() {
+        lock.readLock().lock();
+        try {
+            String id = Long.toString(nextVillageId.getAndIncrement());
+            Shard(id).Request("create " + id);
+            villageIds.add(id);
+            return id;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Runs one VillageCommand line on the village's worker and returns its JSON result.
+    public String Send(String villageId, String command) {
+        lock.readLock().lock();
+        try {
+            if (!villageIds.contains(villageId)) {
+                throw new IllegalArgumentException("No village " + villageId);
+            }
+            return Shard(villageId).Request("cmd " + villageId + " " + command);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private ShardConnection Shard(String villageId) {
+        if (ring.isEmpty()) {
+            throw new IllegalStateException("No shard workers");
+        }
+        return shards.get(ring.Owner(villageId));
+    }
+
+    // Village days simulated across all workers per second since the previous call.
+    public synchronized double getTicksPerSecond() {
+        long days;
+        lock.readLock().lock();
+        try {
+            days = removedShardDays;
+            for (ShardConnection shard : shards.values()) {
+                days += Long.parseLong(shard.Request("stats").split(" ")[1]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long now = System.nanoTime();
+        double perSecond = (days - lastStatsDays) * 1e9 / Math.max(1, now - lastStatsNanos);
+        lastStatsDays = days;
+        lastStatsNanos = now;
+        return perSecond;
+    }
+
+    public Map<String, Integer> getVillagesPerShard() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> counts = new HashMap<>();
+            for (Map.Entry<String, ShardConnection> shard : shards.entrySet()) {
+                counts.put(shard.getKey(), Integer.parseInt(shard.getValue().Request("stats").split(" ")[0]));
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (ShardConnection shard : shards.values()) {
+                shard.close();
+            }
+            shards.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.shard;
+
+import org.example.commands.VillageCommand;
+import org.example.server.VillageRegistry;
+import org.example.storage.VillageCodec;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A worker process hosting a share of the villages. Started by ShardCoordinator; prints "PORT <n>" once it
+// listens on localhost. Protocol, one request line and one response line ("OK ..." or "ERR ..."):
+//   create <id>            cmd <id> <command>     export <id>
+//   import <id> <base64>   drop <id>              stats
+//   shutdown
+public class ShardWorker {
+    private final VillageRegistry registry = new VillageRegistry();
+    private final AtomicLong days = new AtomicLong();
+    private final ServerSocket serverSocket;
+
+    public ShardWorker(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    }
+
+    public static void main(String[] args) throws IOException {
+        ShardWorker worker = new ShardWorker(args.length > 0 ? Integer.parseInt(args[0]) : 0);
+        System.out.println("PORT " + worker.getPort());
+        System.out.flush();
+        worker.Serve();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void Serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                throw e;
+            }
+            Thread connection = new Thread(() -> HandleConnection(socket), "shard-connection");
+            connection.setDaemon(true);
+            connection.start();
+        }
+    }
+
+    private void HandleConnection(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String response;
+                try {
+                    response = "OK " + Handle(line);
+                } catch (RuntimeException e) {
+                    response = "ERR " + String.valueOf(e.getMessage()).replace('\n', ' ');
+                }
+                out.write(response);
+                out.newLine();
+                out.flush();
+                if (line.equals("shutdown")) {
+                    serverSocket.close();
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            // The coordinator went away; nothing to report to.
+        }
+    }
+
+    String Handle(String line) {
+        String[] parts = line.split(" ", 3);
+        switch (parts[0]) {
+            case "create" -> {
+                if (!registry.Create(parts[1])) {
+                    throw new IllegalArgumentException("Village " + parts[1] + " already exists");
+                }
+                return parts[1];
+            }
+            case "cmd" -> {
+                VillageCommand command = VillageCommand.Parse(parts[2]);
+                return registry.With(parts[1], village -> {
+                    synchronized (village) {
+                        int before = village.getDaysGone();
+                        String result = command.Apply(village);
+                        days.addAndGet(village.getDaysGone() - before);
+                        return result;
+                    }
+                });
+            }
+            case "export" -> {
+                return registry.With(parts[1], village -> {
+                    synchronized (village) {
+                        return Base64.getEncoder().encodeToString(VillageCodec.Encode(village));
+                    }
+                });
+            }
+            case "import" -> {
+                registry.Put(parts[1], VillageCodec.Decode(Base64.getDecoder().decode(parts[2])));
+                return parts[1];
+            }
+            case "drop" -> {
+                registry.Remove(parts[1]);
+                return parts[1];
+            }
+            case "stats" -> {
+                return registry.size() + " " + days.get();
+            }
+            case "shutdown" -> {
+                return "bye";
+            }
+            default -> throw new IllegalArgumentException("Unknown request " + parts[0]);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package org.example.storage;
+
+import org.example.Village;
+import org.example.catalog.Catalog;
+import org.example.commands.VillageCommand;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+// Keeps only recently used villages on the heap. When more than maxResident villages, or villages with more
+// than maxResidentWorkers workers in total, are in memory, the least recently used ones are written to the
+// directory with VillageCodec and dropped. The next With() on such a village reads it back in. Callers must
+// only touch a village inside With(), which pins it so it cannot be hibernated while in use.
+// The monitor only guards the maps and counters. Evicted villages wait in hibernating until a thread that
+// holds no monitor writes them out, and all file I/O for an id runs under that id's stripe lock, so a With()
+// of one village never waits for the disk on behalf of another. Lock order is stripe, then monitor.
+public class HibernatingVillageCache {
+    private final Path directory;
+    private final Catalog catalog;
+    private final int maxResident;
+    private final long maxResidentWorkers;
+    private final ReentrantLock[] stripes = new ReentrantLock[64];
+    private final LinkedHashMap<String, Entry> resident = new LinkedHashMap<>(16, 0.75f, true);
+    // Evicted but not yet written; With() takes them back without touching the disk unless the write has started.
+    private final HashMap<String, Entry> hibernating = new HashMap<>();
+    private long residentWorkers = 0;
+    private long hits = 0;
+    private long rehydrations = 0;
+    private long hibernations = 0;
+    private long hibernateFailures = 0;
+    private volatile BiConsumer<String, Village> onRehydrate = (id, village) -> { };
+    private volatile BiConsumer<String, IOException> failureHandler = (id, error) ->
+            System.err.println("Could not hibernate village " + id + ": " + error);
+
+    private static final class Entry {
+        final Village village;
+        int pins = 0;
+        int weight;
+        // Set while a writer encodes it; until then With() can take it straight back.
+        boolean writing = false;
+
+        Entry(Village village) {
+            this.village = village;
+            weight = Weight(village);
+        }
+    }
+
+    public HibernatingVillageCache(Path directory, int maxResident, long maxResidentWorkers) throws IOException {
+        this(directory, Catalog.getDefault(), maxResident, maxResidentWorkers);
+    }
+
+    public HibernatingVillageCache(Path directory, Catalog catalog, int maxResident, long maxResidentWorkers) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.catalog = catalog;
+        this.maxResident = maxResident;
+        this.maxResidentWorkers = maxResidentWorkers;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    // Called with every village read back from disk, before anyone else can see it, so runtime state the codec
+    // does not keep (listeners, for one) can be attached again.
+    public void setOnRehydrate(BiConsumer<String, Village> onRehydrate) {
+        this.onRehydrate = onRehydrate;
+    }
+
+    // Told about every village that could not be written out. Such a village stays on the heap, and the call
+    // that tried to hibernate it still succeeds.
+    public void setFailureHandler(BiConsumer<String, IOException> failureHandler) {
+        this.failureHandler = failureHandler;
+    }
+
+    public void Put(String id, Village village) {
+        List<String> victims;
+        synchronized (this) {
+            // A write still waiting for the id is now stale; the writer sees the entry is gone and skips it.
+            hibernating.remove(id);
+            Entry old = resident.put(id, new Entry(village));
+            if (old != null) {
+                residentWorkers -= old.weight;
+            }
+            residentWorkers += Weight(village);
+            victims = CollectVictims();
+        }
+        Hibernate(victims);
+    }
+
+    public <R> R With(String id, Function<Village, R> action) {
+        Entry entry;
+        synchronized (this) {
+            entry = Pin(id);
+        }
+        if (entry == null) {
+            entry = Rehydrate(id);
+        }
+        try {
+            return action.apply(entry.village);
+        } finally {
+            List<String> victims;
+            synchronized (this) {
+                entry.pins--;
+                int weight = Weight(entry.village);
+                residentWorkers += weight - entry.weight;
+                entry.weight = weight;
+                victims = CollectVictims();
+            }
+            Hibernate(victims);
+        }
+    }
+
+    public String Apply(String id, VillageCommand command) {
+        return With(id, command::Apply);
+    }
+
+    public boolean Contains(String id) {
+        synchronized (this) {
+            if (resident.containsKey(id) || hibernating.containsKey(id)) {
+                return true;
+            }
+        }
+        return Files.exists(FileFor(id));
+    }
+
+    public void Remove(String id) {
+        ReentrantLock stripe = Stripe(id);
+        stripe.lock();
+        try {
+            synchronized (this) {
+                Entry entry = resident.remove(id);
+                if (entry != null) {
+                    residentWorkers -= entry.weight;
+                }
+                hibernating.remove(id);
+            }
+            Files.deleteIfExists(FileFor(id));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    // The resident or still unwritten entry, pinned, or null if the village is being written, on disk or unknown.
+    private Entry Pin(String id) {
+        Entry entry = resident.get(id);
+        if (entry == null) {
+            entry = hibernating.get(id);
+            if (entry == null || entry.writing) {
+                return null;
+            }
+            hibernating.remove(id);
+            resident.put(id, entry);
+            residentWorkers += entry.weight;
+        }
+        hits++;
+        entry.pins++;
+        return entry;
+    }
+
+    private Entry Rehydrate(String id) {
+        ReentrantLock stripe = Stripe(id);
+        stripe.lock();
+        try {
+            // Another thread may have brought it back, or Put a new one, while this one waited for the stripe.
+            synchronized (this) {
+                Entry entry = Pin(id);
+                if (entry != null) {
+                    return entry;
+                }
+            }
+            Path file = FileFor(id);
+            Village village;
+            try {
+                village = VillageCodec.Decode(Files.readAllBytes(file), catalog);
+            } catch (NoSuchFileException e) {
+                throw new IllegalArgumentException("No village " + id);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not rehydrate village " + id, e);
+            }
+            village.setQuiet(true);
+            onRehydrate.accept(id, village);
+            Entry entry;
+            synchronized (this) {
+                // Only finds an entry if a Put won the race, in which case the copy read from disk is older.
+                entry = Pin(id);
+                if (entry == null) {
+                    entry = new Entry(village);
+                    rehydrations++;
+                    resident.put(id, entry);
+                    residentWorkers += entry.weight;
+                    entry.pins++;
+                }
+            }
+            // Only now, so Contains() never sees the village in neither place.
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // Harmless: the heap copy wins while resident and overwrites the file when evicted.
+            }
+            return entry;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    // Moves least recently used, unpinned villages from resident to hibernating until the limits hold again.
+    // Called under the monitor; the caller writes the returned ids once it has let go of it.
+    private List<String> CollectVictims() {
+        List<String> victims = null;
+        Iterator<Map.Entry<String, Entry>> eldest = resident.entrySet().iterator();
+        while ((resident.size() > maxResident || residentWorkers > maxResidentWorkers) && eldest.hasNext()) {
+            Map.Entry<String, Entry> candidate = eldest.next();
+            Entry entry = candidate.getValue();
+            if (entry.pins > 0) {
+                continue;
+            }
+            eldest.remove();
+            residentWorkers -= entry.weight;
+            hibernating.put(candidate.getKey(), entry);
+            if (victims == null) {
+                victims = new ArrayList<>();
+            }
+            victims.add(candidate.getKey());
+        }
+        return victims;
+    }
+
+    private void Hibernate(List<String> victims) {
+        if (victims == null) {
+            return;
+        }
+        for (String id : victims) {
+            Hibernate(id);
+        }
+    }
+
+    private void Hibernate(String id) {
+        ReentrantLock stripe = Stripe(id);
+        stripe.lock();
+        try {
+            Entry entry;
+            synchronized (this) {
+                entry = hibernating.get(id);
+                if (entry == null) {
+                    // Taken back by a With(), replaced by a Put() or removed before it was this thread's turn.
+                    return;
+                }
+                entry.writing = true;
+            }
+            // Nobody else can reach the village now: a With() has to wait for this stripe and read the file.
+            byte[] image = VillageCodec.Encode(entry.village);
+            Path file = FileFor(id);
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                Files.write(temporary, image);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Keep the village on the heap rather than lose it.
+                synchronized (this) {
+                    entry.writing = false;
+                    hibernateFailures++;
+                    if (hibernating.remove(id, entry)) {
+                        resident.put(id, entry);
+                        residentWorkers += entry.weight;
+                    }
+                }
+                failureHandler.accept(id, e);
+                return;
+            }
+            boolean written;
+            synchronized (this) {
+                entry.writing = false;
+                written = hibernating.remove(id, entry);
+                if (written) {
+                    hibernations++;
+                }
+            }
+            if (!written) {
+                // A Put() replaced the village while it was being written.
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            // Only the stale file of a replaced village is left behind; the heap copy wins until it is written.
+            failureHandler.accept(id, e);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private ReentrantLock Stripe(String id) {
+        return stripes[id.hashCode() & (stripes.length - 1)];
+    }
+
+    private Path FileFor(String id) {
+        return directory.resolve(URLEncoder.encode(id, StandardCharsets.UTF_8) + ".village");
+    }
+
+    private static int Weight(Village village) {
+        return 1 + village.getWorkers().size();
+    }
+
+    public synchronized int getResidentCount() {
+        return resident.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getRehydrations() {
+        return rehydrations;
+    }
+
+    public synchronized long getHibernations() {
+        return hibernations;
+    }
+
+    public synchronized long getHibernateFailures() {
+        return hibernateFailures;
+    }
+}
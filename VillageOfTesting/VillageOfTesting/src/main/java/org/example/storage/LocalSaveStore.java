@@ -0,0 +1,179 @@
+package org.example.storage;
+
+import org.example.DatabaseConnection;
+import org.example.Village;
+import org.example.catalog.Catalog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// A DatabaseConnection that keeps each village as a VillageCodec file in a local directory.
+// Names hash onto a fixed set of read-write locks, so saves and loads of different villages run in parallel,
+// loads of the same village share the lock, and a save waits only for its own village. A save writes and syncs
+// a temporary file and renames it over the old one, so a crash leaves either the old or the new save, never half.
+// An incremental store keeps each village as a SnapshotChain (".chain" files) instead, so saving a village again
+// mostly appends the bytes that changed. It keeps the last saved image of every village it touched in memory.
+public class LocalSaveStore extends DatabaseConnection {
+    private static final String SUFFIX = ".village";
+    private static final String CHAIN_SUFFIX = ".chain";
+
+    private final Path directory;
+    private final Catalog catalog;
+    private final ReadWriteLock[] stripes;
+    private final String suffix;
+    // Null unless incremental.
+    private final ConcurrentHashMap<String, SnapshotChain> chains;
+
+    public LocalSaveStore(Path directory) {
+        this(directory, Catalog.getDefault(), 64, false);
+    }
+
+    public LocalSaveStore(Path directory, Catalog catalog, int stripeCount) {
+        this(directory, catalog, stripeCount, false);
+    }
+
+    public LocalSaveStore(Path directory, Catalog catalog, int stripeCount, boolean incremental) {
+        if (stripeCount < 1 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two");
+        }
+        this.directory = directory;
+        this.catalog = catalog;
+        suffix = incremental ? CHAIN_SUFFIX : SUFFIX;
+        chains = incremental ? new ConcurrentHashMap<>() : null;
+        stripes = new ReadWriteLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create save directory " + directory, e);
+        }
+    }
+
+    // The saved names, in no particular order.
+    @Override
+    public ArrayList<String> GetTownNames() {
+        ArrayList<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + suffix)) {
+            for (Path file : files) {
+                String encoded = file.getFileName().toString();
+                names.add(URLDecoder.decode(encoded.substring(0, encoded.length() - suffix.length()), StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list saves in " + directory, e);
+        }
+        return names;
+    }
+
+    // Returns null when there is no save under the name, like DatabaseConnection.
+    @Override
+    public Village LoadVillage(String choice) {
+        byte[] image;
+        ReadWriteLock lock = Stripe(choice);
+        lock.readLock().lock();
+        try {
+            if (chains != null) {
+                if (!Files.exists(FileFor(choice))) {
+                    return null;
+                }
+                try {
+                    return SnapshotChain.LoadFile(FileFor(choice), catalog);
+                } catch (IllegalStateException e) {
+                    // Not one intact snapshot in the file.
+                    return null;
+                }
+            }
+            image = Files.readAllBytes(FileFor(choice));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load village " + choice, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return VillageCodec.Decode(image, catalog);
+    }
+
+    // The village is encoded before taking the lock; the caller must not change it meanwhile.
+    @Override
+    public boolean SaveVillage(Village village, String choice) {
+        if (chains != null) {
+            ReadWriteLock lock = Stripe(choice);
+            lock.writeLock().lock();
+            try {
+                Chain(choice).Save(village);
+                return true;
+            } catch (UncheckedIOException e) {
+                return false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        byte[] image = VillageCodec.Encode(village);
+        Path file = FileFor(choice);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        ReadWriteLock lock = Stripe(choice);
+        lock.writeLock().lock();
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(image);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean Delete(String choice) {
+        ReadWriteLock lock = Stripe(choice);
+        lock.writeLock().lock();
+        try {
+            if (chains != null) {
+                chains.remove(choice);
+            }
+            return Files.deleteIfExists(FileFor(choice));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete village " + choice, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private ReadWriteLock Stripe(String name) {
+        int hash = name.hashCode();
+        hash ^= hash >>> 16;
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    private SnapshotChain Chain(String name) {
+        return chains.computeIfAbsent(name, key -> new SnapshotChain(FileFor(key)));
+    }
+
+    private Path FileFor(String name) {
+        return directory.resolve(URLEncoder.encode(name, StandardCharsets.UTF_8) + suffix);
+    }
+}
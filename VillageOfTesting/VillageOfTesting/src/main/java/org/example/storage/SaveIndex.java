@@ -0,0 +1,155 @@
+package org.example.storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+// Sorted index of saved village names, kept in index.txt next to the save files. Lookups and prefix searches
+// use an in-memory sorted set; every change is appended to the file ("+name" or "-name"), and the file is
+// rewritten compactly when it is opened. Close it to release the journal; lookups still work afterwards.
+public class SaveIndex implements AutoCloseable {
+    public static final String FILE_NAME = "index.txt";
+
+    private final TreeSet<String> names = new TreeSet<>();
+    private final Path file;
+    private final BufferedWriter journal;
+    private final boolean created;
+    private boolean closed = false;
+
+    private SaveIndex(Path file) throws IOException {
+        this.file = file;
+        created = !Files.exists(file);
+        if (!created) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.startsWith("+")) {
+                    names.add(line.substring(1));
+                } else if (line.startsWith("-")) {
+                    names.remove(line.substring(1));
+                }
+            }
+        }
+        Compact();
+        journal = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    public static SaveIndex Open(Path directory) {
+        try {
+            return new SaveIndex(Files.createDirectories(directory).resolve(FILE_NAME));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open save index in " + directory, e);
+        }
+    }
+
+    // True if there was no index file yet, so the caller may want to seed it from an existing save store.
+    public boolean isNew() {
+        return created;
+    }
+
+    private void Compact() throws IOException {
+        Path temporary = file.resolveSibling(FILE_NAME + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            for (String name : names) {
+                out.write("+" + name);
+                out.newLine();
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public synchronized boolean Contains(String name) {
+        return names.contains(name);
+    }
+
+    public synchronized void Add(String name) {
+        EnsureOpen();
+        if (names.add(Check(name))) {
+            Append("+" + name);
+        }
+    }
+
+    public synchronized void AddAll(Collection<String> toAdd) {
+        for (String name : toAdd) {
+            Add(name);
+        }
+    }
+
+    public synchronized void Remove(String name) {
+        EnsureOpen();
+        if (names.remove(name)) {
+            Append("-" + name);
+        }
+    }
+
+    // Up to limit names starting with prefix, in order.
+    public synchronized List<String> Search(String prefix, int limit) {
+        List<String> found = new ArrayList<>(Math.min(limit, 64));
+        for (String name : names.tailSet(prefix, true)) {
+            if (!name.startsWith(prefix) || found.size() == limit) {
+                break;
+            }
+            found.add(name);
+        }
+        return found;
+    }
+
+    // The page of up to limit names that follows after (exclusive), or the first page when after is null.
+    public synchronized List<String> ListAfter(String after, int limit) {
+        List<String> page = new ArrayList<>(Math.min(limit, 64));
+        for (String name : after == null ? names : names.tailSet(after, false)) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(name);
+        }
+        return page;
+    }
+
+    public synchronized int size() {
+        return names.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not close save index", e);
+        }
+    }
+
+    private void EnsureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The save index is closed");
+        }
+    }
+
+    private static String Check(String name) {
+        if (name.isEmpty() || name.indexOf('\n') >= 0 || name.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Village names must be non-empty and on one line");
+        }
+        return name;
+    }
+
+    private void Append(String line) {
+        try {
+            journal.write(line);
+            journal.newLine();
+            journal.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not update save index", e);
+        }
+    }
+}
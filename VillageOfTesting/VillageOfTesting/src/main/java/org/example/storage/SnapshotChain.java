@@ -0,0 +1,312 @@
+package org.example.storage;
+
+import org.example.Village;
+import org.example.catalog.Catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Save file for one village as a chain of snapshots: a deflated VillageCodec image followed by deflated deltas,
+// each holding only the byte ranges that changed since the previous snapshot. Saving a long-lived village
+// therefore mostly appends a few dozen bytes. Once the deltas add up to more than half the base, or there are
+// maxDeltas of them, the file is rewritten as a single new base.
+//
+// Record layout: byte kind (0 = base, 1 = delta), int length, int CRC32 of the payload, deflated payload.
+// Delta payload: int new image length, then runs of (int offset, int length, bytes). A damaged or half-written
+// last record is ignored on load, so a crash during an append loses only that save, and the next save cuts it
+// off before appending: records after garbage would never be read.
+public class SnapshotChain {
+    private static final byte BASE = 0;
+    private static final byte DELTA = 1;
+    private static final int HEADER = 9;
+    private static final int MERGE_GAP = 8;
+
+    private final Path file;
+    private final int maxDeltas;
+    private byte[] lastImage;
+    private int deltas = 0;
+    private long deltaBytes = 0;
+    private long baseBytes = 0;
+    // Where the last record Replay could read ends, and whether anything follows it.
+    private long validBytes = 0;
+    private boolean tornTail = false;
+
+    public SnapshotChain(Path file) {
+        this(file, 64);
+    }
+
+    public SnapshotChain(Path file, int maxDeltas) {
+        this.file = file;
+        this.maxDeltas = maxDeltas;
+    }
+
+    public synchronized void Save(Village village) {
+        byte[] image = VillageCodec.Encode(village);
+        try {
+            if (lastImage == null && Files.exists(file)) {
+                Replay();
+            }
+            if (lastImage == null || deltas >= maxDeltas || deltaBytes > baseBytes / 2) {
+                WriteBase(image);
+            } else {
+                byte[] record = Record(DELTA, Delta(lastImage, image));
+                if (tornTail) {
+                    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                        channel.truncate(validBytes);
+                    }
+                    tornTail = false;
+                }
+                Files.write(file, record, StandardOpenOption.APPEND);
+                deltas++;
+                deltaBytes += record.length;
+                validBytes += record.length;
+            }
+            lastImage = image;
+        } catch (IOException e) {
+            // The append may have left part of a record behind; replay the file before the next save.
+            lastImage = null;
+            throw new UncheckedIOException("Could not save snapshot to " + file, e);
+        }
+    }
+
+    public Village Load(Catalog catalog) {
+        return LoadFile(file, catalog);
+    }
+
+    // Only reads the file and touches no chain's state, so loads never wait for each other or for a chain object.
+    public static Village LoadFile(Path file, Catalog catalog) {
+        Replayed replayed;
+        try {
+            replayed = Read(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read snapshots from " + file, e);
+        }
+        if (replayed.image == null) {
+            throw new IllegalStateException("No snapshot in " + file);
+        }
+        return VillageCodec.Decode(replayed.image, catalog);
+    }
+
+    public boolean Exists() {
+        return Files.exists(file);
+    }
+
+    // Rewrites the chain as a single base snapshot.
+    public synchronized void Compact() {
+        try {
+            Replay();
+            if (lastImage != null) {
+                WriteBase(lastImage);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compact " + file, e);
+        }
+    }
+
+    public synchronized int getDeltaCount() {
+        if (lastImage == null) {
+            try {
+                Replay();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read snapshots from " + file, e);
+            }
+        }
+        return deltas;
+    }
+
+    private void WriteBase(byte[] image) throws IOException {
+        byte[] record = Record(BASE, image);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        // The data must be on disk before the rename, or a crash could keep the new name over an empty file.
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(record);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        baseBytes = record.length;
+        deltas = 0;
+        deltaBytes = 0;
+        validBytes = record.length;
+        tornTail = false;
+    }
+
+    // What a replay of the file found.
+    private static final class Replayed {
+        byte[] image;
+        int deltas = 0;
+        long deltaBytes = 0;
+        long baseBytes = 0;
+        long validBytes = 0;
+        boolean tornTail = false;
+    }
+
+    private void Replay() throws IOException {
+        Replayed replayed = Read(file);
+        lastImage = replayed.image;
+        deltas = replayed.deltas;
+        deltaBytes = replayed.deltaBytes;
+        baseBytes = replayed.baseBytes;
+        validBytes = replayed.validBytes;
+        tornTail = replayed.tornTail;
+    }
+
+    private static Replayed Read(Path file) throws IOException {
+        Replayed replayed = new Replayed();
+        if (!Files.exists(file)) {
+            return replayed;
+        }
+        ByteBuffer chain;
+        try {
+            chain = ByteBuffer.wrap(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return replayed;
+        }
+        while (chain.remaining() >= HEADER) {
+            byte kind = chain.get();
+            int length = chain.getInt();
+            int crc = chain.getInt();
+            if (length < 0 || length > chain.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            chain.get(payload);
+            CRC32 check = new CRC32();
+            check.update(payload);
+            if ((int) check.getValue() != crc) {
+                break;
+            }
+            try {
+                byte[] data = Inflate(payload);
+                if (kind == BASE) {
+                    replayed.image = data;
+                    replayed.baseBytes = HEADER + length;
+                    replayed.deltas = 0;
+                    replayed.deltaBytes = 0;
+                } else if (kind == DELTA && replayed.image != null) {
+                    replayed.image = ApplyDelta(replayed.image, data);
+                    replayed.deltas++;
+                    replayed.deltaBytes += HEADER + length;
+                } else {
+                    break;
+                }
+            } catch (IOException | RuntimeException e) {
+                // A record that passed its CRC but still does not decode counts as damaged too.
+                break;
+            }
+            replayed.validBytes = chain.position();
+        }
+        replayed.tornTail = replayed.validBytes < chain.capacity();
+        return replayed;
+    }
+
+    private static byte[] Record(byte kind, byte[] data) {
+        byte[] payload = Deflate(data);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(HEADER + payload.length)
+                .put(kind)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .array();
+    }
+
+    static byte[] Delta(byte[] previous, byte[] next) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(next.length);
+            int i = 0;
+            while (i < next.length) {
+                if (i < previous.length && previous[i] == next[i]) {
+                    i++;
+                    continue;
+                }
+                int start = i;
+                int end = i + 1;
+                int same = 0;
+                // Extend the run until MERGE_GAP bytes in a row match again, so nearby changes share a header.
+                for (int j = end; j < next.length && same < MERGE_GAP; j++) {
+                    if (j < previous.length && previous[j] == next[j]) {
+                        same++;
+                    } else {
+                        same = 0;
+                        end = j + 1;
+                    }
+                }
+                out.writeInt(start);
+                out.writeInt(end - start);
+                out.write(next, start, end - start);
+                i = end;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] ApplyDelta(byte[] previous, byte[] delta) {
+        ByteBuffer in = ByteBuffer.wrap(delta);
+        byte[] next = new byte[in.getInt()];
+        System.arraycopy(previous, 0, next, 0, Math.min(previous.length, next.length));
+        while (in.hasRemaining()) {
+            int offset = in.getInt();
+            int length = in.getInt();
+            in.get(next, offset, length);
+        }
+        return next;
+    }
+
+    private static byte[] Deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] Inflate(byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length * 4);
+            byte[] chunk = new byte[4096];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(chunk);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated snapshot record");
+                }
+                out.write(chunk, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt snapshot record", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.storage;
+
+import org.example.Village;
+import org.example.catalog.Catalog;
+import org.example.catalog.Occupation;
+import org.example.objects.Building;
+import org.example.objects.Project;
+import org.example.objects.Worker;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+
+// Binary image of a village's game state and history, used to move, hibernate and save villages. Listeners and
+// the quiet flag belong to the host, not the game, and are not stored. The fixed-size counters come first and the
+// history last, so that images of the same village taken a few days apart line up byte for byte.
+// Version 1 images, without the history or the named flag, can still be read.
+public final class VillageCodec {
+    public static final int MAGIC = 0x564F5456;
+    public static final short VERSION = 2;
+
+    private VillageCodec() {
+    }
+
+    public static byte[] Encode(Village village) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + village.getWorkers().size() * 24);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeBoolean(village.isGameOver());
+            out.writeInt(village.getFood());
+            out.writeInt(village.getWood());
+            out.writeInt(village.getMetal());
+            out.writeInt(village.getMetalPerDay());
+            out.writeInt(village.getWoodPerDay());
+            out.writeInt(village.getFoodPerDay());
+            out.writeInt(village.getMaxWorkers());
+            out.writeInt(village.getDaysGone());
+            out.writeInt(village.getWorkersHired());
+
+            ArrayList<Worker> workers = village.getWorkers();
+            out.writeInt(workers.size());
+            for (int i = 0; i < workers.size(); i++) {
+                Worker worker = workers.get(i);
+                out.writeBoolean(worker.isAlive());
+                out.writeBoolean(worker.isHungry());
+                out.writeInt(worker.getDaysHungry());
+                out.writeUTF(worker.getOccupation());
+                out.writeInt(worker.getNumber());
+                out.writeBoolean(worker.isNamed());
+                if (worker.isNamed()) {
+                    out.writeUTF(worker.getName());
+                }
+            }
+
+            ArrayList<Building> buildings = village.getBuildings();
+            out.writeInt(buildings.size());
+            for (int i = 0; i < buildings.size(); i++) {
+                out.writeUTF(buildings.get(i).getName());
+            }
+
+            ArrayList<Project> projects = village.getProjects();
+            out.writeInt(projects.size());
+            for (int i = 0; i < projects.size(); i++) {
+                Project project = projects.get(i);
+                out.writeInt(project.getDaysLeft());
+                out.writeInt(project.getEffect());
+                out.writeUTF(project.getName());
+            }
+
+            village.getHistory().Write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Village Decode(byte[] image) {
+        return Decode(image, Catalog.getDefault());
+    }
+
+    public static Village Decode(byte[] image, Catalog catalog) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(image))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a village image");
+            }
+            short version = in.readShort();
+            if (version != VERSION && version != 1) {
+                throw new IllegalArgumentException("Unsupported village image version " + version);
+            }
+            Village village = new Village(catalog);
+            village.setGameOver(in.readBoolean());
+            village.setFood(in.readInt());
+            village.setWood(in.readInt());
+            village.setMetal(in.readInt());
+            village.setMetalPerDay(in.readInt());
+            village.setWoodPerDay(in.readInt());
+            village.setFoodPerDay(in.readInt());
+            village.setMaxWorkers(in.readInt());
+            village.setDaysGone(in.readInt());
+            village.setWorkersHired(in.readInt());
+
+            int workerCount = in.readInt();
+            ArrayList<Worker> workers = village.getWorkers();
+            workers.ensureCapacity(workerCount);
+            for (int i = 0; i < workerCount; i++) {
+                boolean alive = in.readBoolean();
+                boolean hungry = in.readBoolean();
+                int daysHungry = in.readInt();
+                String occupation = in.readUTF();
+                int number = in.readInt();
+                boolean named = version == 1 ? number == 0 : in.readBoolean();
+                Occupation job = catalog.getOccupations().get(occupation);
+                if (job == null) {
+                    throw new IllegalArgumentException("Unknown occupation " + occupation + " in village image");
+                }
+                Worker worker = new Worker(null, occupation, job.getProduces());
+                worker.ResetUnnamed(number, occupation, job.getProduces());
+                if (named) {
+                    worker.setName(in.readUTF());
+                }
+                worker.setAlive(alive);
+                worker.setHungry(hungry);
+                worker.setDaysHungry(daysHungry);
+                workers.add(worker);
+            }
+
+            int buildingCount = in.readInt();
+            ArrayList<Building> buildings = village.getBuildings();
+            buildings.clear();
+            buildings.ensureCapacity(buildingCount);
+            for (int i = 0; i < buildingCount; i++) {
+                buildings.add(catalog.getBuilding(in.readUTF()));
+            }
+
+            int projectCount = in.readInt();
+            ArrayList<Project> projects = village.getProjects();
+            projects.ensureCapacity(projectCount);
+            for (int i = 0; i < projectCount; i++) {
+                int daysLeft = in.readInt();
+                int effect = in.readInt();
+                projects.add(new Project(in.readUTF(), daysLeft, effect));
+            }
+            if (version > 1) {
+                village.getHistory().Read(in);
+            }
+            // Otherwise getStatus() would report a new village until the first day or command.
+            village.PublishStatus();
+            return village;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Truncated village image", e);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.storage;
+
+import org.example.DatabaseConnection;
+import org.example.Village;
+import org.example.catalog.Catalog;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Saves villages on a background thread. Save() only takes a VillageCodec image of the village, which is a
+// consistent copy of the moment it was called, and returns at once. If a village is saved again under the same
+// name before the writer got to it, only the newest image is written and both callers get that write's result.
+// Results only arrive through the returned futures; the saver never prints, so it cannot talk over a prompt.
+public class WriteBehindSaver implements AutoCloseable {
+    private final DatabaseConnection databaseConnection;
+    private final LinkedHashMap<String, PendingSave> pending = new LinkedHashMap<>();
+    private Thread writer;
+    private int writing = 0;
+    private boolean closed = false;
+
+    private static final class PendingSave {
+        byte[] image;
+        Catalog catalog;
+        final CompletableFuture<Boolean> result = new CompletableFuture<>();
+    }
+
+    public WriteBehindSaver(DatabaseConnection databaseConnection) {
+        this.databaseConnection = databaseConnection;
+    }
+
+    // Completes with SaveVillage's result, or exceptionally if it threw.
+    public synchronized CompletableFuture<Boolean> Save(Village village, String name) {
+        if (closed) {
+            throw new IllegalStateException("The saver is closed");
+        }
+        byte[] image = VillageCodec.Encode(village);
+        PendingSave save = pending.get(name);
+        boolean coalesced = save != null;
+        if (!coalesced) {
+            save = new PendingSave();
+            pending.put(name, save);
+        }
+        save.image = image;
+        save.catalog = village.getCatalog();
+        if (coalesced) {
+            return save.result;
+        }
+        if (writer == null) {
+            writer = new Thread(this::WriteLoop, "village-saver");
+            writer.setDaemon(true);
+            writer.start();
+        }
+        notifyAll();
+        return save.result;
+    }
+
+    // Waits until every save requested so far has been written.
+    public synchronized void Flush() throws InterruptedException {
+        while (!pending.isEmpty() || writing > 0) {
+            wait();
+        }
+    }
+
+    // Writes everything saved so far and stops the writer thread; later saves are refused. If interrupted while
+    // waiting, the saves not yet written complete exceptionally instead.
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+        try {
+            Flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Map.Entry<String, PendingSave> entry : pending.entrySet()) {
+                entry.getValue().result.completeExceptionally(new IllegalStateException("Closed before " + entry.getKey() + " was saved"));
+            }
+            pending.clear();
+        }
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private void WriteLoop() {
+        while (true) {
+            String name;
+            PendingSave save;
+            synchronized (this) {
+                while (pending.isEmpty()) {
+                    if (closed) {
+                        return;
+                    }
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                Iterator<Map.Entry<String, PendingSave>> oldest = pending.entrySet().iterator();
+                Map.Entry<String, PendingSave> entry = oldest.next();
+                oldest.remove();
+                name = entry.getKey();
+                save = entry.getValue();
+                writing++;
+            }
+            try {
+                save.result.complete(databaseConnection.SaveVillage(VillageCodec.Decode(save.image, save.catalog), name));
+            } catch (RuntimeException e) {
+                save.result.completeExceptionally(e);
+            } finally {
+                synchronized (this) {
+                    writing--;
+                    notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.example.verify;
+
+import org.example.catalog.Catalog;
+import org.example.interfaces.IVillageEngine;
+import org.example.kernel.ColumnarVillage;
+import org.example.kernel.OffHeapWorkerStore;
+import org.example.objects.Worker;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Plays the same random command sequences against ReferenceVillage and a candidate engine
+// and stops at the first command after which their states differ.
+public class DifferentialHarness {
+    private static final String[] OCCUPATIONS = {"farmer", "lumberjack", "miner", "builder", "baker"};
+    private static final String[] PROJECTS = {"House", "Woodmill", "Quarry", "Farm", "Castle", "Tower"};
+
+    public static class Divergence {
+        private final long seed;
+        private final int step;
+        private final String command;
+        private final String expected;
+        private final String actual;
+
+        public Divergence(long seed, int step, String command, String expected, String actual) {
+            this.seed = seed;
+            this.step = step;
+            this.command = command;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+        public int getStep() {
+            return step;
+        }
+        public String getCommand() {
+            return command;
+        }
+        public String getExpected() {
+            return expected;
+        }
+        public String getActual() {
+            return actual;
+        }
+
+        @Override
+        public String toString() {
+            return "Sequence " + seed + " diverged at step " + step + " (" + command + ")\n"
+                    + "reference:\n" + expected + "\ncandidate:\n" + actual;
+        }
+    }
+
+    private final Supplier<IVillageEngine> candidate;
+    private final int length;
+
+    public DifferentialHarness(Supplier<IVillageEngine> candidate, int length) {
+        this.candidate = candidate;
+        this.length = length;
+    }
+
+    // Runs one sequence, generated from the seed alone so any divergence can be replayed.
+    public Divergence RunSequence(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        ReferenceVillage reference = new ReferenceVillage(Worker.daysUntilStarvation);
+        IVillageEngine engine = candidate.get();
+        String before = reference.Describe();
+        if (!before.equals(engine.Describe())) {
+            return new Divergence(seed, 0, "new", before, engine.Describe());
+        }
+        int workers = 0;
+        for (int step = 1; step <= length; step++) {
+            String command;
+            int roll = random.nextInt(100);
+            if (roll < 15) {
+                String occupation = OCCUPATIONS[random.nextInt(OCCUPATIONS.length)];
+                String name = "w" + workers++;
+                command = "AddWorker " + name + " " + occupation;
+                boolean expected = reference.AddWorker(name, occupation);
+                if (expected != engine.AddWorker(name, occupation)) {
+                    return new Divergence(seed, step, command, "returned " + expected, "returned " + !expected);
+                }
+            } else if (roll < 30) {
+                String project = PROJECTS[random.nextInt(PROJECTS.length)];
+                command = "AddProject " + project;
+                reference.AddProject(project);
+                engine.AddProject(project);
+            } else if (roll < 34) {
+                // Jump resources around so starvation, expensive projects and the castle are all reached.
+                int food = random.nextInt(4) == 0 ? 0 : random.nextInt(60);
+                int wood = random.nextInt(120);
+                int metal = random.nextInt(120);
+                command = "SetResources " + food + " " + wood + " " + metal;
+                reference.SetResources(food, wood, metal);
+                engine.SetResources(food, wood, metal);
+            } else {
+                command = "Day";
+                reference.Day();
+                engine.Day();
+            }
+            String expected = reference.Describe();
+            String actual = engine.Describe();
+            if (!expected.equals(actual)) {
+                return new Divergence(seed, step, command, expected, actual);
+            }
+        }
+        return null;
+    }
+
+    // Runs sequences firstSeed .. firstSeed + count - 1 and returns the divergence with the lowest seed, or null.
+    public Divergence Run(long firstSeed, long count) {
+        for (long seed = firstSeed; seed < firstSeed + count; seed++) {
+            Divergence divergence = RunSequence(seed);
+            if (divergence != null) {
+                return divergence;
+            }
+        }
+        return null;
+    }
+
+    // Splits the seeds over several threads; the engines must not share mutable state.
+    public Divergence Run(long firstSeed, long count, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicLong next = new AtomicLong(firstSeed);
+        AtomicLong firstBad = new AtomicLong(Long.MAX_VALUE);
+        long end = firstSeed + count;
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            Divergence[] found = new Divergence[threads];
+            for (int t = 0; t < threads; t++) {
+                int slot = t;
+                futures[t] = executor.submit(() -> {
+                    long seed;
+                    while ((seed = next.getAndIncrement()) < end && seed < firstBad.get()) {
+                        Divergence divergence = RunSequence(seed);
+                        if (divergence != null) {
+                            found[slot] = divergence;
+                            firstBad.accumulateAndGet(seed, Math::min);
+                            return;
+                        }
+                    }
+                });
+            }
+            Divergence first = null;
+            for (int t = 0; t < threads; t++) {
+                futures[t].get();
+                if (found[t] != null && (first == null || found[t].getSeed() < first.getSeed())) {
+                    first = found[t];
+                }
+            }
+            return first;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static Supplier<IVillageEngine> Engine(String name) {
+        if (name.equals("village")) {
+            return VillageEngine::new;
+        }
+        if (name.equals("columnar")) {
+            return ColumnarVillage::new;
+        }
+        if (name.equals("offheap")) {
+            return () -> new ColumnarVillage(Catalog.getDefault(), new OffHeapWorkerStore());
+        }
+        throw new IllegalArgumentException("Unknown engine: " + name);
+    }
+
+    // Usage: DifferentialHarness [engine] [sequences] [length] [firstSeed]
+    public static void main(String[] args) throws Exception {
+        String engine = args.length > 0 ? args[0] : "village";
+        long sequences = args.length > 1 ? Long.parseLong(args[1]) : 100000;
+        int length = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        long firstSeed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        Divergence divergence = new DifferentialHarness(Engine(engine), length).Run(firstSeed, sequences, threads);
+        long millis = (System.nanoTime() - start) / 1000000;
+        if (divergence != null) {
+            System.out.println(divergence);
+            System.exit(1);
+        }
+        System.out.println(sequences + " sequences of " + length + " commands matched the reference in " + millis + " ms.");
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.verify;
+
+import org.example.interfaces.IVillageEngine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+// Frozen copy of the original Village rules, kept deliberately simple and slow, minus the console output.
+// Do not optimise or refactor this class: it is the definition other engines are checked against.
+public class ReferenceVillage implements IVillageEngine {
+    private interface Job {
+        void Work(String name);
+    }
+
+    private interface Completion {
+        void UponCompletion();
+    }
+
+    private static final class RefWorker {
+        final String name;
+        final String occupation;
+        final Job job;
+        boolean hungry = false;
+        boolean alive = true;
+        int daysHungry = 0;
+
+        RefWorker(String name, String occupation, Job job) {
+            this.name = name;
+            this.occupation = occupation;
+            this.job = job;
+        }
+    }
+
+    private static final class RefProject {
+        final String name;
+        final int woodCost;
+        final int metalCost;
+        final int days;
+        final Completion completion;
+
+        RefProject(String name, int woodCost, int metalCost, int days, Completion completion) {
+            this.name = name;
+            this.woodCost = woodCost;
+            this.metalCost = metalCost;
+            this.days = days;
+            this.completion = completion;
+        }
+    }
+
+    private static final class RefQueued {
+        final RefProject project;
+        int daysLeft;
+
+        RefQueued(RefProject project) {
+            this.project = project;
+            daysLeft = project.days;
+        }
+    }
+
+    private final int daysUntilStarvation;
+    private boolean gameOver = false;
+    private int food = 10;
+    private int wood = 0;
+    private int metal = 0;
+    private final ArrayList<RefWorker> workers = new ArrayList<>();
+    private final ArrayList<String> buildings = new ArrayList<>();
+    private final ArrayList<RefQueued> projects = new ArrayList<>();
+    private final HashMap<String, Job> jobs = new HashMap<>();
+    private final HashMap<String, RefProject> possibleProjects = new HashMap<>();
+    private int metalPerDay = 1;
+    private int woodPerDay = 1;
+    private int foodPerDay = 5;
+    private int maxWorkers = 6;
+    private int daysGone = 0;
+
+    public ReferenceVillage(int daysUntilStarvation) {
+        this.daysUntilStarvation = daysUntilStarvation;
+        jobs.put("farmer", name -> food += foodPerDay);
+        jobs.put("lumberjack", name -> wood += woodPerDay);
+        jobs.put("miner", name -> metal += metalPerDay);
+        jobs.put("builder", name -> Build());
+
+        possibleProjects.put("House", new RefProject("House", 5, 0, 3, () -> maxWorkers += 2));
+        possibleProjects.put("Woodmill", new RefProject("Woodmill", 5, 1, 5, () -> woodPerDay++));
+        possibleProjects.put("Quarry", new RefProject("Quarry", 3, 5, 7, () -> metalPerDay++));
+        possibleProjects.put("Farm", new RefProject("Farm", 5, 2, 5, () -> foodPerDay += 5));
+        possibleProjects.put("Castle", new RefProject("Castle", 50, 50, 50, () -> gameOver = true));
+
+        buildings.add("House");
+        buildings.add("House");
+        buildings.add("House");
+    }
+
+    @Override
+    public boolean AddWorker(String name, String occupation) {
+        if (workers.size() < maxWorkers && jobs.containsKey(occupation)) {
+            workers.add(new RefWorker(name, occupation, jobs.get(occupation)));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void AddProject(String name) {
+        RefProject project = possibleProjects.get(name);
+        if (project != null && wood >= project.woodCost && metal >= project.metalCost) {
+            wood -= project.woodCost;
+            metal -= project.metalCost;
+            projects.add(new RefQueued(project));
+        }
+    }
+
+    @Override
+    public void Day() {
+        for (RefWorker worker : workers) {
+            if (food > 0 && worker.alive) {
+                worker.daysHungry = 0;
+                worker.hungry = false;
+                food--;
+            }
+        }
+        boolean someoneAlive = false;
+        for (RefWorker worker : workers) {
+            if (worker.alive) {
+                if (!worker.hungry) {
+                    worker.job.Work(worker.name);
+                    worker.hungry = true;
+                } else {
+                    worker.daysHungry++;
+                    if (worker.daysHungry >= daysUntilStarvation) {
+                        worker.alive = false;
+                    }
+                }
+            }
+            if (worker.alive) {
+                someoneAlive = true;
+            }
+        }
+        daysGone++;
+        if (!someoneAlive && workers.size() > 0) {
+            gameOver = true;
+        }
+    }
+
+    private void Build() {
+        if (projects.size() > 0) {
+            RefQueued current = projects.get(0);
+            current.daysLeft--;
+            if (current.daysLeft < 1) {
+                projects.remove(current);
+                buildings.add(current.project.name);
+                current.project.completion.UponCompletion();
+            }
+        }
+    }
+
+    @Override
+    public void SetResources(int food, int wood, int metal) {
+        this.food = food;
+        this.wood = wood;
+        this.metal = metal;
+    }
+
+    @Override
+    public String Describe() {
+        StringBuilder state = new StringBuilder();
+        state.append("day=").append(daysGone).append(" over=").append(gameOver)
+                .append(" food=").append(food).append(" wood=").append(wood).append(" metal=").append(metal)
+                .append(" max=").append(maxWorkers)
+                .append(" rates=").append(foodPerDay).append('/').append(woodPerDay).append('/').append(metalPerDay)
+                .append("\nworkers:");
+        for (RefWorker worker : workers) {
+            state.append(' ').append(worker.name).append(':').append(worker.occupation).append(':')
+                    .append(worker.alive ? "alive" : "dead").append(':').append(worker.hungry ? "hungry" : "fed")
+                    .append(':').append(worker.daysHungry);
+        }
+        state.append("\nprojects:");
+        for (RefQueued project : projects) {
+            state.append(' ').append(project.project.name).append(':').append(project.daysLeft);
+        }
+        state.append("\nbuildings:");
+        for (String building : buildings) {
+            state.append(' ').append(building);
+        }
+        return state.toString();
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.verify;
+
+import org.example.Village;
+import org.example.interfaces.IVillageEngine;
+import org.example.objects.Building;
+import org.example.objects.Project;
+import org.example.objects.Worker;
+
+// The production Village behind the engine interface.
+public class VillageEngine implements IVillageEngine {
+    private final Village village = new Village();
+
+    public VillageEngine() {
+        village.setQuiet(true);
+    }
+
+    @Override
+    public boolean AddWorker(String name, String occupation) {
+        return village.AddWorker(name, occupation);
+    }
+
+    @Override
+    public void AddProject(String name) {
+        village.AddProject(name);
+    }
+
+    @Override
+    public void Day() {
+        village.Day();
+    }
+
+    @Override
+    public void SetResources(int food, int wood, int metal) {
+        village.setFood(food);
+        village.setWood(wood);
+        village.setMetal(metal);
+    }
+
+    @Override
+    public String Describe() {
+        return Describe(village);
+    }
+
+    // The same format as ReferenceVillage.Describe, for any Village.
+    public static String Describe(Village village) {
+        StringBuilder state = new StringBuilder();
+        state.append("day=").append(village.getDaysGone()).append(" over=").append(village.isGameOver())
+                .append(" food=").append(village.getFood()).append(" wood=").append(village.getWood()).append(" metal=").append(village.getMetal())
+                .append(" max=").append(village.getMaxWorkers())
+                .append(" rates=").append(village.getFoodPerDay()).append('/').append(village.getWoodPerDay()).append('/').append(village.getMetalPerDay())
+                .append("\nworkers:");
+        for (Worker worker : village.getWorkers()) {
+            state.append(' ').append(worker.getName()).append(':').append(worker.getOccupation()).append(':')
+                    .append(worker.isAlive() ? "alive" : "dead").append(':').append(worker.isHungry() ? "hungry" : "fed")
+                    .append(':').append(worker.getDaysHungry());
+        }
+        state.append("\nprojects:");
+        for (Project project : village.getProjects()) {
+            state.append(' ').append(project.getName()).append(':').append(project.getDaysLeft());
+        }
+        state.append("\nbuildings:");
+        for (Building building : village.getBuildings()) {
+            state.append(' ').append(building.getName());
+        }
+        return state.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ProjectEstimatorTest {
+
+    @Test
+    public void estimator_PredictsWhenProjectsBecomeAffordable() {
+        Village village = new Village();
+        village.setQuiet(true);
+        village.AddWorker("Amber", "farmer");
+        village.AddWorker("Bo", "farmer");
+        village.AddWorker("Cy", "lumberjack");
+        village.AddWorker("Di", "lumberjack");
+        village.AddWorker("Ed", "miner");
+        village.AddWorker("Flo", "builder");
+
+        int days = village.getDaysUntilAffordable("Castle");
+        assertEquals(50, days);
+        assertEquals(50 + 50, village.getDaysUntilBuilt("Castle"));
+        village.Advance(days - 1);
+        assertFalse(village.getEstimator().isDirty());
+        assertEquals(1, village.getDaysUntilAffordable("Castle"));
+        village.Day();
+        assertEquals(0, village.getDaysUntilAffordable("Castle"));
+        assertTrue(village.AddProject("Castle"));
+        assertEquals(50, village.getDaysUntilAffordable("Castle"));
+        assertEquals(ProjectEstimator.NEVER, village.getDaysUntilAffordable("Tower"));
+    }
+}
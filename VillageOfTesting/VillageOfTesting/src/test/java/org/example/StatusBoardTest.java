@@ -0,0 +1,31 @@
+package org.example;
+
+import org.example.catalog.Occupation;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StatusBoardTest {
+
+    @Test
+    public void status_IsPublishedAtTheEndOfEachDay() {
+        Village village = new Village();
+        village.setQuiet(true);
+        village.AddWorker("Amber", "farmer");
+        village.AddWorker("Bo", "builder");
+        village.setWood(5);
+        village.AddProject("House");
+        assertEquals(0, village.getStatus().getWorkers());
+
+        village.Day();
+        VillageStatus status = village.getStatus();
+
+        assertEquals(1, status.getDay());
+        assertEquals(2, status.getAlive());
+        assertEquals(1, status.getAlive(Occupation.FOOD));
+        assertEquals(1, status.getAlive(Occupation.BUILD));
+        assertEquals(village.getFood(), status.getFood());
+        assertEquals("House", status.getHeadProject());
+        assertEquals(2, status.getHeadDaysLeft());
+        assertEquals(3, status.getHeadDaysTotal());
+    }
+}
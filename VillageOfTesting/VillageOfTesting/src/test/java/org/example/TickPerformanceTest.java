@@ -0,0 +1,163 @@
+package org.example;
+
+import org.example.interfaces.IVillageEngine;
+import org.example.interfaces.IVillageListener;
+import org.example.objects.Worker;
+import org.example.verify.ReferenceVillage;
+import org.example.verify.VillageEngine;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+import java.util.function.Consumer;
+
+// Guards the cost of a tick. Quiet days must not allocate at all, and Village must keep its speed relative to the
+// frozen ReferenceVillage, measured in the same run so that most of the difference between machines cancels out.
+// The expected ratios live in tick-baseline.properties; -Dtick.tolerance overrides the allowed drop.
+public class TickPerformanceTest {
+
+    // Long enough for the castle to be built and completed inside every measured episode.
+    private static final int EPISODE_DAYS = 60;
+    private static final int MEASURED_EPISODES = 3;
+
+    private static final String[] CASTLE_CREW = {"farmer", "farmer", "lumberjack", "lumberjack", "miner", "builder"};
+
+    private static void CastleVillage(Village village) {
+        for (int i = 0; i < CASTLE_CREW.length; i++) {
+            village.AddWorker("Worker " + i, CASTLE_CREW[i]);
+        }
+        village.setWood(100);
+        village.setMetal(100);
+        village.AddProject("Castle");
+    }
+
+    private static void Town(Village village) {
+        village.setMaxWorkers(2000);
+        village.AddWorkers("farmer", 800);
+        village.AddWorkers("lumberjack", 400);
+        village.AddWorkers("miner", 400);
+        village.AddWorkers("builder", 400);
+        village.setWood(1000);
+        village.setMetal(1000);
+        village.AddProject("Castle");
+    }
+
+    @Test
+    public void quietDay_DoesNotAllocate() {
+        assertEquals(0, AllocatedPerDay(TickPerformanceTest::CastleVillage, 500), 0.0);
+    }
+
+    @Test
+    public void quietDayInALargeTown_DoesNotAllocate() {
+        assertEquals(0, AllocatedPerDay(TickPerformanceTest::Town, 20), 0.0);
+    }
+
+    @Test
+    public void quietDayWithListeners_DoesNotAllocate() {
+        IVillageListener listener = new IVillageListener() {
+        };
+        assertEquals(0, AllocatedPerDay(village -> {
+            CastleVillage(village);
+            village.AddListener(listener);
+        }, 500), 0.0);
+    }
+
+    @Test
+    public void throughput_KeepsUpWithTheBaseline() throws IOException {
+        Properties baseline = new Properties();
+        try (InputStream in = TickPerformanceTest.class.getResourceAsStream("/tick-baseline.properties")) {
+            assertNotNull("tick-baseline.properties is missing", in);
+            baseline.load(in);
+        }
+        double tolerance = Double.parseDouble(System.getProperty("tick.tolerance", baseline.getProperty("tolerance")));
+        double minimum = Double.parseDouble(baseline.getProperty("houses.ratio")) * (1 - tolerance);
+
+        // Best of a few rounds, so a single pause on a busy machine does not fail the build.
+        double best = 0;
+        for (int round = 0; round < 3 && best < minimum; round++) {
+            double village = DaysPerSecond(new VillageEngine());
+            double reference = DaysPerSecond(new ReferenceVillage(Worker.daysUntilStarvation));
+            best = Math.max(best, village / reference);
+        }
+        assertTrue(String.format("Village ran at %.2fx the reference, the baseline allows no less than %.2fx", best, minimum),
+                best >= minimum);
+    }
+
+    // Bytes allocated by Day itself, averaged over a fresh episode after the given number of warm-up episodes.
+    // The smallest of a few measured episodes is returned: allocation in the code recurs in every episode, while
+    // the JIT deoptimizing a method now and then charges a one-off hundred bytes or so to whichever day it hits.
+    private static double AllocatedPerDay(Consumer<Village> setup, int warmupEpisodes) {
+        com.sun.management.ThreadMXBean threads = ThreadBean();
+        long thread = Thread.currentThread().getId();
+        Village village = new Village();
+        village.setQuiet(true);
+        for (int episode = 0; episode < warmupEpisodes; episode++) {
+            village.Reset();
+            setup.accept(village);
+            for (int day = 0; day < EPISODE_DAYS; day++) {
+                village.Day();
+            }
+        }
+
+        long fewest = Long.MAX_VALUE;
+        for (int episode = 0; episode < MEASURED_EPISODES; episode++) {
+            village.Reset();
+            setup.accept(village);
+
+            // Reading the counter may allocate by itself, so measure an empty interval and take that off.
+            long overhead = -threads.getThreadAllocatedBytes(thread) + threads.getThreadAllocatedBytes(thread);
+            long start = threads.getThreadAllocatedBytes(thread);
+            for (int day = 0; day < EPISODE_DAYS; day++) {
+                village.Day();
+            }
+            long allocated = threads.getThreadAllocatedBytes(thread) - start - overhead;
+            assertEquals("The castle should have been completed during the episode", 1,
+                    village.getBuildings().stream().filter(b -> b.getName().equals("Castle")).count());
+            fewest = Math.min(fewest, Math.max(0, allocated));
+        }
+        return fewest / (double) EPISODE_DAYS;
+    }
+
+    private static com.sun.management.ThreadMXBean ThreadBean() {
+        assumeTrue("Per-thread allocation counters are not available",
+                ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue("Per-thread allocation counters are not available", threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    // A builder that never runs out of work: a House costs 5 wood and takes 3 days, the two lumberjacks bring in
+    // 6 wood in that time, and one more House is queued every third day. The timed days therefore feed, produce,
+    // build and complete a project every third day, rather than idling after a win.
+    private static double DaysPerSecond(IVillageEngine engine) {
+        for (int i = 0; i < CASTLE_CREW.length; i++) {
+            engine.AddWorker("Worker " + i, CASTLE_CREW[i]);
+        }
+        engine.SetResources(10, 100, 100);
+        engine.AddProject("House");
+        RunHouses(engine, 50000);
+        int days = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            RunHouses(engine, 9999);
+            days += 9999;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < 250_000_000L);
+        return days * 1e9 / elapsed;
+    }
+
+    private static void RunHouses(IVillageEngine engine, int days) {
+        for (int day = 0; day < days; day++) {
+            if (day % 3 == 0) {
+                engine.AddProject("House");
+            }
+            engine.Day();
+        }
+    }
+}
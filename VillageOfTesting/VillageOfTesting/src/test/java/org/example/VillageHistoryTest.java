@@ -0,0 +1,37 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class VillageHistoryTest {
+
+    @Test
+    public void history_KeepsRecentDaysAndDownsamplesOlderOnes() {
+        VillageHistory history = new VillageHistory(4, 2, 2);
+        for (int day = 1; day <= 10; day++) {
+            history.Record(day, day * 10, 0, 0, 1, 0, 0);
+        }
+
+        assertEquals(10, history.getRecordedDays());
+        assertEquals(4, history.getRecentCount());
+        assertEquals(7, history.getRecentDay(0));
+        assertEquals(100, history.getRecent(3, VillageHistory.FOOD));
+        assertEquals("Only the two newest buckets should be kept", 2, history.getBucketCount());
+        assertEquals(3, history.getBucketFirstDay(0));
+        assertEquals(50, history.getBucketMin(1, VillageHistory.FOOD));
+        assertEquals(60, history.getBucketMax(1, VillageHistory.FOOD));
+        assertEquals(55.0, history.getBucketAverage(1, VillageHistory.FOOD), 0.001);
+    }
+
+    @Test
+    public void day_RecordsVillageHistory() {
+        Village village = new Village();
+        village.AddWorker("Amber", "farmer");
+        village.Day();
+
+        assertEquals(1, village.getHistory().getRecentCount());
+        assertEquals(1, village.getHistory().getRecentDay(0));
+        assertEquals(village.getFood(), village.getHistory().getRecent(0, VillageHistory.FOOD));
+        assertEquals(1, village.getHistory().getRecent(0, VillageHistory.ALIVE));
+    }
+}
@@ -0,0 +1,32 @@
+package org.example;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class VillagePoolTest {
+
+    @Test
+    public void pool_HandsOutReleasedVillagesAgain() {
+        VillagePool pool = new VillagePool(1);
+        Village first = pool.Acquire();
+        first.setFood(0);
+        pool.Release(first);
+
+        Village second = pool.Acquire();
+
+        assertSame(first, second);
+        assertEquals("A pooled village should be reset before reuse", 10, second.getFood());
+    }
+
+    @Test
+    public void pool_IgnoresASecondRelease() {
+        VillagePool pool = new VillagePool(4);
+        Village first = pool.Acquire();
+        pool.Release(first);
+        pool.Release(first);
+
+        assertEquals(1, pool.getIdleCount());
+        assertSame(first, pool.Acquire());
+        assertNotSame(first, pool.Acquire());
+    }
+}
@@ -2,12 +2,21 @@ package org.example;
 
 import org.example.objects.Building;
 import org.example.objects.Project;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
 import org.example.objects.Worker;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 
 public class VillageTest {
@@ -548,6 +557,109 @@ public class VillageTest {
         assertEquals(8, workers.size());
     }
 
+    @Test
+    public void reset_RestoresStartingStateAndReusesWorkers() {
+        village.AddWorker("Amber", "farmer");
+        village.setWood(5);
+        village.AddProject("House");
+        village.Day();
+        Worker amber = village.getWorkers().get(0);
+
+        village.Reset();
+
+        assertTrue(village.getWorkers().isEmpty());
+        assertTrue(village.getProjects().isEmpty());
+        assertEquals(3, village.getBuildings().size());
+        assertEquals(10, village.getFood());
+        assertEquals(0, village.getDaysGone());
+        assertEquals(6, village.getMaxWorkers());
+
+        village.AddWorker("Brian", "lumberjack");
+        assertSame("Reset should recycle the old worker object", amber, village.getWorkers().get(0));
+        assertEquals("Brian", amber.getName());
+        assertTrue(amber.isAlive());
+    }
+
+    @Test
+    public void enqueueProjects_DeductsTotalCostOrNothing() {
+        village.setWood(20);
+        village.setMetal(2);
+        Map<String, Integer> order = new LinkedHashMap<>();
+        order.put("House", 2);
+        order.put("Farm", 1);
+
+        assertTrue(village.EnqueueProjects(order));
+        assertEquals(3, village.getProjects().size());
+        assertEquals(5, village.getWood());
+        assertEquals(0, village.getMetal());
+
+        order.put("Castle", 1);
+        assertFalse("Castle is not affordable, so nothing should be queued", village.EnqueueProjects(order));
+        assertEquals(3, village.getProjects().size());
+        assertEquals(5, village.getWood());
+    }
+
+    @Test
+    public void affordable_CountsBuildableProjects() {
+        village.setWood(10);
+        village.setMetal(5);
+
+        Map<String, Integer> affordable = village.getAffordable();
+
+        assertEquals(Integer.valueOf(2), affordable.get("House"));
+        assertEquals(Integer.valueOf(1), affordable.get("Quarry"));
+        assertEquals(Integer.valueOf(2), affordable.get("Farm"));
+        assertEquals(Integer.valueOf(0), affordable.get("Castle"));
+    }
+
+    @Test
+    public void addWorkers_HiresUpToMaxWorkersWithGeneratedNames() {
+        village.AddWorker("Amber", "farmer");
+
+        int hired = village.AddWorkers("miner", 10);
+
+        assertEquals("Only five more workers fit in the starting houses", 5, hired);
+        assertTrue(village.isFull());
+        assertEquals("Miner 2", village.getWorkers().get(1).getName());
+        assertEquals("Miner 6", village.getWorkers().get(5).getName());
+        assertEquals(0, village.AddWorkers("dragon slayer", 1));
+    }
+
+    @Test
+    public void dayPhaseEvents_RecordOneBuildPhasePerBuilderTurn() throws IOException {
+        village.setQuiet(true);
+        village.AddWorker("Amber", "builder");
+        village.AddWorker("Brian", "farmer");
+        village.AddWorker("Kent", "builder");
+        village.AddWorker("Lisa", "builder");
+        village.setWood(100);
+        village.AddProject("House");
+        village.AddProject("House");
+
+        Path file = Files.createTempFile("phases", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.example.DayPhase").withThreshold(Duration.ZERO);
+            recording.start();
+            village.Day();
+            village.Day();
+            village.Day();
+            recording.stop();
+            recording.dump(file);
+
+            Map<String, Integer> phases = new LinkedHashMap<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                phases.merge(event.getString("phase"), 1, Integer::sum);
+            }
+            assertEquals(Integer.valueOf(3), phases.get("feed"));
+            assertEquals(Integer.valueOf(3), phases.get("work"));
+            // Three builder turns a day; the two houses take all six turns of the first two days and nobody
+            // builds on the third.
+            assertEquals(Integer.valueOf(6), phases.get("build"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
     public void addMaxWorker(String name) {
         String[] occupation = {"farmer", "farmer", "lumberjack", "miner", "lumberjack", "builder"};
         for (int i = 0; i < occupation.length && i < village.getMaxWorkers(); i++) {
@@ -0,0 +1,37 @@
+package org.example.catalog;
+
+import org.example.Village;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+public class CatalogTest {
+
+    @Test
+    public void villages_ShareTheDefaultCatalog() {
+        Village village = new Village();
+        Village other = new Village();
+
+        assertSame("Every village should use the same catalog instance", village.getCatalog(), other.getCatalog());
+        assertEquals(5, village.getPossibleProjects().size());
+        assertEquals(4, village.getOccupations().size());
+    }
+
+    @Test
+    public void customCatalog_DrivesCostsAndEffects() throws IOException {
+        Catalog catalog = Catalog.Parse(new StringReader(
+                "occupation builder build\n" +
+                "project Barracks 1 0 1 maxWorkers+=10\n"));
+        Village custom = new Village(catalog);
+        custom.setWood(1);
+        custom.AddWorker("Bob", "builder");
+        custom.AddProject("Barracks");
+
+        custom.Day();
+
+        assertEquals("Barracks should add ten worker slots", 16, custom.getMaxWorkers());
+        assertFalse("Farmers are not in this catalog", custom.AddWorker("Amber", "farmer"));
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.commands;
+
+import org.example.Village;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class VillageCommandTest {
+
+    @Test
+    public void commands_ParseAndApplyToVillage() {
+        Village village = new Village();
+        village.setQuiet(true);
+        VillageCommand.Parse("workers farmer 2").Apply(village);
+        String result = VillageCommand.Parse("advance 3").Apply(village);
+
+        assertEquals("{\"advanced\":3,\"day\":3,\"gameOver\":false}", result);
+        assertEquals(2, village.getWorkers().size());
+        try {
+            VillageCommand.Parse("project");
+            fail("A project command needs a name");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
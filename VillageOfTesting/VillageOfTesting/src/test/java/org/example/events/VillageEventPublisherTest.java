@@ -0,0 +1,273 @@
+package org.example.events;
+
+import org.example.Village;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class VillageEventPublisherTest {
+
+    // Runs deliveries on the publishing thread, so every test is deterministic.
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void resourceChanges_AreTrackedPerVillage() {
+        VillageEventPublisher publisher = new VillageEventPublisher(DIRECT, 16, OverflowPolicy.DROP);
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        publisher.subscribe(recorder);
+        Village idle = new Village();
+        Village farming = new Village();
+        idle.setQuiet(true);
+        farming.setQuiet(true);
+        farming.AddWorker("Amber", "farmer");
+        publisher.Watch(idle);
+        publisher.Watch(farming);
+        publisher.Watch(idle);
+
+        idle.Day();
+        farming.Day();
+        // Nothing changed in the idle village since its own last event, whatever the farming one did.
+        idle.Day();
+        farming.Day();
+
+        assertEquals(List.of(10, 14, 18), recorder.Foods());
+    }
+
+    @Test
+    public void drop_DiscardsNewEventsWhileTheBufferIsFull() {
+        VillageEventPublisher publisher = new VillageEventPublisher(DIRECT, 2, OverflowPolicy.DROP);
+        Recorder recorder = new Recorder(0);
+        publisher.subscribe(recorder);
+        for (int food = 1; food <= 5; food++) {
+            publisher.Publish(Resources(food));
+        }
+        assertEquals(3, publisher.getDroppedCount());
+
+        recorder.subscription.request(10);
+        assertEquals(List.of(1, 2), recorder.Foods());
+    }
+
+    @Test
+    public void coalesce_ReplacesQueuedResourceUpdates() {
+        VillageEventPublisher publisher = new VillageEventPublisher(DIRECT, 2, OverflowPolicy.COALESCE);
+        Recorder recorder = new Recorder(0);
+        publisher.subscribe(recorder);
+        publisher.Publish(Resources(1));
+        publisher.Publish(Died("Amber"));
+        // Replaces the queued update with food 1.
+        publisher.Publish(Resources(2));
+        // Makes room by discarding the update with food 2.
+        publisher.Publish(Died("Brian"));
+        // Nothing left to discard, so this one goes.
+        publisher.Publish(Died("Kent"));
+        assertEquals(3, publisher.getDroppedCount());
+
+        recorder.subscription.request(10);
+        assertEquals(List.of("Amber", "Brian"), recorder.Subjects());
+    }
+
+    @Test
+    public void block_WaitsForTheSubscriberThenGivesUp() throws InterruptedException {
+        VillageEventPublisher publisher = new VillageEventPublisher(DIRECT, 1, OverflowPolicy.BLOCK, 5, TimeUnit.SECONDS);
+        Recorder recorder = new Recorder(0);
+        publisher.subscribe(recorder);
+        publisher.Publish(Resources(1));
+
+        Thread consumer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            recorder.subscription.request(1);
+        });
+        consumer.start();
+        // Waits for the consumer to take the first event rather than dropping the second.
+        publisher.Publish(Resources(2));
+        consumer.join();
+        assertEquals(0, publisher.getDroppedCount());
+        assertEquals(List.of(1), recorder.Foods());
+
+        VillageEventPublisher impatient = new VillageEventPublisher(DIRECT, 1, OverflowPolicy.BLOCK, 20, TimeUnit.MILLISECONDS);
+        impatient.subscribe(new Recorder(0));
+        impatient.Publish(Resources(1));
+        long start = System.nanoTime();
+        impatient.Publish(Resources(2));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(15));
+        assertEquals(1, impatient.getDroppedCount());
+    }
+
+    @Test
+    public void request_DeliversNoMoreThanTheDemand() {
+        VillageEventPublisher publisher = new VillageEventPublisher(DIRECT, 16, OverflowPolicy.DROP);
+        Recorder recorder = new Recorder(2);
+        publisher.subscribe(recorder);
+        for (int food = 1; food <= 5; food++) {
+            publisher.Publish(Resources(food));
+        }
+        assertEquals(List.of(1, 2), recorder.Foods());
+
+        recorder.subscription.request(1);
+        assertEquals(List.of(1, 2, 3), recorder.Foods());
+        recorder.subscription.request(Long.MAX_VALUE);
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of(1, 2, 3, 4, 5), recorder.Foods());
+
+        recorder.subscription.request(0);
+        assertTrue(recorder.error instanceof IllegalArgumentException);
+        publisher.Publish(Resources(6));
+        assertEquals("A bad request cancels the subscription", 5, recorder.events.size());
+    }
+
+    @Test
+    public void cancel_StopsDelivery() {
+        VillageEventPublisher publisher = new VillageEventPublisher(DIRECT, 16, OverflowPolicy.DROP);
+        Recorder cancelled = new Recorder(Long.MAX_VALUE);
+        Recorder other = new Recorder(Long.MAX_VALUE);
+        publisher.subscribe(cancelled);
+        publisher.subscribe(other);
+        publisher.Publish(Resources(1));
+        cancelled.subscription.cancel();
+        publisher.Publish(Resources(2));
+        publisher.close();
+
+        assertEquals(List.of(1), cancelled.Foods());
+        assertFalse(cancelled.completed);
+        assertEquals(List.of(1, 2), other.Foods());
+    }
+
+    @Test
+    public void close_CompletesAfterTheBufferedEvents() throws InterruptedException {
+        VillageEventPublisher publisher = new VillageEventPublisher(DIRECT, 16, OverflowPolicy.DROP);
+        Recorder recorder = new Recorder(0);
+        publisher.subscribe(recorder);
+        publisher.Publish(Resources(1));
+        publisher.Publish(Resources(2));
+        publisher.close();
+        assertFalse("Buffered events come first", recorder.completed);
+
+        recorder.subscription.request(2);
+        assertEquals(List.of(1, 2), recorder.Foods());
+        assertTrue(recorder.completed);
+
+        Recorder late = new Recorder(0);
+        publisher.subscribe(late);
+        assertTrue("A subscriber after close completes at once", late.done.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void subscriberThatThrows_IsCancelledAndToldWhy() {
+        VillageEventPublisher publisher = new VillageEventPublisher(DIRECT, 16, OverflowPolicy.DROP);
+        IllegalStateException broken = new IllegalStateException("Broken subscriber");
+        Recorder failing = new Recorder(Long.MAX_VALUE) {
+            @Override
+            public synchronized void onNext(VillageEvent event) {
+                super.onNext(event);
+                if (event.getFood() == 2) {
+                    throw broken;
+                }
+            }
+        };
+        Recorder other = new Recorder(Long.MAX_VALUE);
+        publisher.subscribe(failing);
+        publisher.subscribe(other);
+
+        for (int food = 1; food <= 3; food++) {
+            publisher.Publish(Resources(food));
+        }
+
+        assertSame(broken, failing.error);
+        assertEquals(List.of(1, 2), failing.Foods());
+        assertEquals(List.of(1, 2, 3), other.Foods());
+    }
+
+    @Test
+    public void rejectedDelivery_FailsTheSubscriber() {
+        boolean[] rejecting = {true};
+        Executor flaky = command -> {
+            if (rejecting[0]) {
+                throw new RejectedExecutionException("Shut down");
+            }
+            command.run();
+        };
+        VillageEventPublisher publisher = new VillageEventPublisher(flaky, 16, OverflowPolicy.DROP);
+        Recorder recorder = new Recorder(Long.MAX_VALUE);
+        publisher.subscribe(recorder);
+
+        publisher.Publish(Resources(1));
+        rejecting[0] = false;
+        publisher.Publish(Resources(2));
+
+        assertTrue(recorder.error instanceof RejectedExecutionException);
+        assertEquals(List.of(), recorder.Foods());
+    }
+
+    private static VillageEvent Resources(int food) {
+        return new VillageEvent(VillageEvent.Type.RESOURCES_CHANGED, 0, null, food, 0, 0);
+    }
+
+    private static VillageEvent Died(String worker) {
+        return new VillageEvent(VillageEvent.Type.WORKER_DIED, 0, worker, 0, 0, 0);
+    }
+
+    private static class Recorder implements Flow.Subscriber<VillageEvent> {
+        private final long initialDemand;
+        final List<VillageEvent> events = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        Flow.Subscription subscription;
+        volatile boolean completed;
+        volatile Throwable error;
+
+        Recorder(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public synchronized void onNext(VillageEvent event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+
+        synchronized List<Integer> Foods() {
+            List<Integer> foods = new ArrayList<>();
+            for (VillageEvent event : events) {
+                foods.add(event.getFood());
+            }
+            return foods;
+        }
+
+        synchronized List<String> Subjects() {
+            List<String> subjects = new ArrayList<>();
+            for (VillageEvent event : events) {
+                subjects.add(event.getSubject());
+            }
+            return subjects;
+        }
+    }
+}
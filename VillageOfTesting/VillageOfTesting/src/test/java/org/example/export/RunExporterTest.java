@@ -0,0 +1,175 @@
+package org.example.export;
+
+import org.example.Village;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RunExporterTest {
+
+    @Test
+    public void columnarExporter_WritesDayAndEventBlocks() throws IOException {
+        Path file = Files.createTempFile("run", ".votc");
+        try {
+            Village village = new Village();
+            village.setQuiet(true);
+            try (ColumnarRunExporter exporter = new ColumnarRunExporter(file, 2)) {
+                village.AddListener(exporter);
+                village.AddWorker("Bob", "builder");
+                village.setWood(5);
+                village.AddProject("House");
+                for (int i = 0; i < 3; i++) {
+                    village.Day();
+                }
+            }
+
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(ColumnarRunExporter.MAGIC, in.getInt());
+            assertEquals(ColumnarRunExporter.VERSION, in.getShort());
+            assertArrayEquals(ExportBatch.DAY_COLUMNS, ReadNames(in));
+            assertArrayEquals(ExportBatch.EVENT_COLUMNS, ReadNames(in));
+
+            List<Integer> days = new ArrayList<>();
+            List<String> subjects = new ArrayList<>();
+            byte tag;
+            while ((tag = in.get()) != ColumnarRunExporter.END) {
+                int rows = in.getInt();
+                if (tag == ColumnarRunExporter.DAY_BLOCK) {
+                    for (int i = 0; i < rows; i++) {
+                        days.add(in.getInt());
+                    }
+                    // The other eight int columns and the game over bytes.
+                    in.position(in.position() + rows * 8 * 4 + rows);
+                }
+                else {
+                    assertEquals(ColumnarRunExporter.EVENT_BLOCK, tag);
+                    in.position(in.position() + rows * 4 + rows);
+                    int[] offsets = new int[rows + 1];
+                    for (int i = 0; i <= rows; i++) {
+                        offsets[i] = in.getInt();
+                    }
+                    for (int i = 0; i < rows; i++) {
+                        byte[] subject = new byte[offsets[i + 1] - offsets[i]];
+                        in.get(subject);
+                        subjects.add(new String(subject, StandardCharsets.UTF_8));
+                    }
+                    in.position(in.position() + rows * 2 * 4);
+                }
+            }
+            assertFalse("Nothing follows the end tag", in.hasRemaining());
+            assertEquals(List.of(1, 2, 3), days);
+            assertEquals(List.of("House", "House"), subjects);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void csvExporter_WritesDaysAndEvents() throws IOException {
+        Path days = Files.createTempFile("days", ".csv");
+        Path events = Files.createTempFile("events", ".csv");
+        try {
+            Village village = new Village();
+            try (CsvRunExporter exporter = new CsvRunExporter(days, events, 2)) {
+                village.AddListener(exporter);
+                village.AddWorker("Bob", "builder");
+                village.setWood(5);
+                village.AddProject("House");
+                for (int i = 0; i < 3; i++) {
+                    village.Day();
+                }
+            }
+
+            List<String> dayLines = Files.readAllLines(days);
+            List<String> eventLines = Files.readAllLines(events);
+            assertEquals("Header plus one line per day", 4, dayLines.size());
+            assertTrue(dayLines.get(3).startsWith("3,"));
+            assertEquals("0,projectAdded,House,5,0", eventLines.get(1));
+            assertEquals("2,completion,House,0,0", eventLines.get(2));
+        } finally {
+            Files.deleteIfExists(days);
+            Files.deleteIfExists(events);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void writerThatThrows_DoesNotBlockOrFailTheSimulation() {
+        FailingExporter exporter = new FailingExporter();
+        Village village = new Village();
+        village.setQuiet(true);
+        village.AddWorkers("farmer", 3);
+        village.AddListener(exporter);
+        // Far more batches than the exporter owns: a dead writer would leave Day waiting for a free one.
+        for (int i = 0; i < 100; i++) {
+            village.Day();
+        }
+
+        assertEquals(100, village.getDaysGone());
+        assertTrue(exporter.getFailure().getCause() instanceof IllegalArgumentException);
+        try {
+            exporter.close();
+            fail("The failure should be reported on close");
+        } catch (IOException expected) {
+            assertTrue(expected.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void callbacksAfterClose_AreIgnored() throws IOException {
+        Path file = Files.createTempFile("run", ".votc");
+        try {
+            Village village = new Village();
+            village.setQuiet(true);
+            ColumnarRunExporter exporter = new ColumnarRunExporter(file, 1);
+            village.AddListener(exporter);
+            village.Day();
+            exporter.close();
+            long size = Files.size(file);
+
+            // With one row per batch, a listener still writing would need more batches than exist.
+            for (int i = 0; i < 20; i++) {
+                village.Day();
+            }
+
+            assertEquals(21, village.getDaysGone());
+            assertEquals(size, Files.size(file));
+            assertNull(exporter.getFailure());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static String[] ReadNames(ByteBuffer in) {
+        String[] names = new String[in.getShort()];
+        for (int i = 0; i < names.length; i++) {
+            byte[] name = new byte[in.getShort()];
+            in.get(name);
+            names[i] = new String(name, StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    private static class FailingExporter extends RunExporter {
+        FailingExporter() {
+            super(1);
+            Start();
+        }
+
+        @Override
+        protected void WriteBatch(ExportBatch batch) {
+            throw new IllegalArgumentException("Broken writer");
+        }
+
+        @Override
+        protected void Finish() {
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.kernel;
+
+import org.example.verify.DifferentialHarness;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ColumnarVillageTest {
+
+    @Test
+    public void differentialHarness_ColumnarVillageMatchesReference() {
+        DifferentialHarness harness = new DifferentialHarness(ColumnarVillage::new, 150);
+        DifferentialHarness.Divergence divergence = harness.Run(1, 300);
+        assertNull(String.valueOf(divergence), divergence);
+    }
+}
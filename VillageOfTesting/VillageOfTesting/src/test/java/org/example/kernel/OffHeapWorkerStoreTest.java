@@ -0,0 +1,109 @@
+package org.example.kernel;
+
+import org.example.verify.DifferentialHarness;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class OffHeapWorkerStoreTest {
+
+    // One more chunk of records than fits in the first, which holds 1 << 22.
+    private static final int CHUNK = 1 << 22;
+    private static final int WORKERS = CHUNK + 1000;
+    private static final int STARVING = 10;
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("workers");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static String Name(int i) {
+        return i % 1000 == 0 ? null : "worker-" + i;
+    }
+
+    @Test(timeout = 120000)
+    public void mappedStore_PastTheFirstChunk_ReadsBackFlagsAndNames() throws IOException {
+        Path file = directory.resolve("workers");
+        try (OffHeapWorkerStore store = new OffHeapWorkerStore(file)) {
+            for (int i = 0; i < WORKERS; i++) {
+                assertEquals(i, store.Add(Name(i), i % 100, i % 5));
+            }
+            // The last few go without food on both days, so they end up hungry but still alive.
+            store.FeedAndWork(WORKERS - STARVING, 2);
+            store.FeedAndWork(WORKERS - STARVING, 2);
+
+            assertEquals(WORKERS, store.size());
+            assertEquals(WORKERS, store.getAliveCount());
+            // About 15 bytes a name, so they fill several name chunks.
+            for (int i = 0; i < WORKERS; i++) {
+                assertEquals(Name(i), store.getName(i));
+                assertEquals(i % 100, store.getOccupation(i));
+                assertTrue(store.isAlive(i));
+                assertTrue(store.isHungry(i));
+                assertEquals(i >= WORKERS - STARVING ? 1 : 0, store.getDaysHungry(i));
+            }
+            assertEquals(CHUNK + 2, store.NextWorking(CHUNK - 2, 1));
+            long[] counts = new long[5];
+            store.CountWorking(CHUNK - 5, CHUNK + 5, counts);
+            assertArrayEquals(new long[] {2, 2, 2, 2, 2}, counts);
+            counts = new long[5];
+            store.CountWorking(0, WORKERS, counts);
+            assertEquals(WORKERS - STARVING, counts[0] + counts[1] + counts[2] + counts[3] + counts[4]);
+            assertEquals(-1, store.NextWorking(WORKERS - STARVING, 0));
+
+            store.FeedAndWork(WORKERS - STARVING, 2);
+            assertEquals(WORKERS - STARVING, store.getAliveCount());
+            assertTrue(store.isAlive(CHUNK));
+            assertFalse(store.isAlive(WORKERS - 1));
+        }
+        // The second record chunk was mapped over the file past the first.
+        assertTrue(Files.size(file) > (long) CHUNK * 16);
+        assertTrue(Files.size(directory.resolve("workers.names")) > 2L << 24);
+    }
+
+    @Test(timeout = 60000)
+    public void mappedStore_NamesNeverSpanTwoNameChunks() throws IOException {
+        // Names near the 32767 byte limit do not divide the 16 MiB name chunk, so each chunk ends with a gap.
+        String longest = "é".repeat(Short.MAX_VALUE / 2) + "x";
+        try (OffHeapWorkerStore store = new OffHeapWorkerStore(directory.resolve("long"))) {
+            for (int i = 0; i < 1200; i++) {
+                store.Add(i + longest.substring(String.valueOf(i).length()), 0, 0);
+            }
+            store.Add("last", 0, 0);
+
+            for (int i = 0; i < 1200; i++) {
+                String name = store.getName(i);
+                assertEquals(longest.length(), name.length());
+                assertTrue(name, name.startsWith(String.valueOf(i)));
+            }
+            assertEquals("last", store.getName(1200));
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapWorkerStore().Add("x".repeat(Short.MAX_VALUE + 1), 0, 0));
+    }
+
+    @Test
+    public void differentialHarness_OffHeapWorkersMatchReference() {
+        DifferentialHarness harness = new DifferentialHarness(DifferentialHarness.Engine("offheap"), 150);
+        DifferentialHarness.Divergence divergence = harness.Run(1, 100);
+        assertNull(String.valueOf(divergence), divergence);
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.load;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void latencyHistogram_ReportsPercentilesWithinPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.Record(value * 1000);
+        }
+
+        assertEquals(100000, histogram.getCount());
+        assertEquals(50000000, histogram.Percentile(50), 50000000 / 64);
+        assertEquals(99000000, histogram.Percentile(99), 99000000 / 64);
+        assertEquals(99900000, histogram.Percentile(99.9), 99900000 / 64);
+        assertEquals(100000000, histogram.Percentile(100));
+    }
+}
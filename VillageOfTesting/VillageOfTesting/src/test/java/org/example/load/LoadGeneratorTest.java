@@ -0,0 +1,56 @@
+package org.example.load;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+public class LoadGeneratorTest {
+
+    @Test(timeout = 30000)
+    public void run_DrivesTheMixAndMeasuresTheRealElapsedTime() throws InterruptedException {
+        LoadGenerator generator = new LoadGenerator()
+                .setVillages(8)
+                .setThreads(2)
+                .setRatePerSecond(2000)
+                .setWarmupMillis(50)
+                .setDurationMillis(200)
+                .setMix("day=50,worker=25,project=25");
+        long before = System.nanoTime();
+        LoadGenerator.Result result = generator.Run();
+        long wall = System.nanoTime() - before;
+
+        // 2000 per second for 0.2 s.
+        assertTrue(String.valueOf(result.getCount()), result.getCount() >= 350 && result.getCount() <= 450);
+        for (LoadGenerator.Operation operation : LoadGenerator.Operation.values()) {
+            assertTrue(operation.name(), result.getService(operation).getCount() > 0);
+            assertEquals(result.getService(operation).getCount(), result.getResponse(operation).getCount());
+        }
+        assertTrue(result.getElapsedNanos() >= TimeUnit.MILLISECONDS.toNanos(200) - result.getElapsedNanos() / 10);
+        assertTrue(result.getElapsedNanos() <= wall);
+        assertTrue(result.Report(), result.Report().contains(result.getCount() + " commands in"));
+    }
+
+    @Test(timeout = 60000)
+    public void run_ThatFallsBehindReportsTheTimeItReallyTook() throws InterruptedException {
+        // A command every nanosecond cannot be kept up with, so the last one finishes long after the window.
+        LoadGenerator.Result result = new LoadGenerator()
+                .setVillages(1)
+                .setThreads(1)
+                .setRatePerSecond(1_000_000_000)
+                .setWarmupMillis(0)
+                .setDurationMillis(5)
+                .setMix("day=1")
+                .Run();
+
+        assertEquals(5_000_000, result.getCount());
+        assertTrue(String.valueOf(result.getElapsedNanos()), result.getElapsedNanos() > TimeUnit.MILLISECONDS.toNanos(20));
+    }
+
+    @Test
+    public void run_RefusesAnImpossibleSetup() {
+        assertThrows(IllegalStateException.class, () -> new LoadGenerator().setVillages(1).setThreads(2).Run());
+        assertThrows(IllegalArgumentException.class, () -> new LoadGenerator().setMix("day"));
+        assertThrows(IllegalArgumentException.class, () -> new LoadGenerator().setMix("dance=1"));
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.market;
+
+import org.example.Village;
+import org.example.catalog.Occupation;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MarketTest {
+
+    @Test
+    public void market_SettlesAtTheSellPriceAndRefundsTheRest() {
+        Village village = new Village();
+        Market market = new Market(4);
+        MarketAccount seller = market.Open();
+        MarketAccount buyer = market.Open();
+        Village other = new Village();
+        village.setQuiet(true);
+        other.setQuiet(true);
+        village.setWood(15);
+        other.setMetal(40);
+
+        assertTrue(seller.Sell(village, Occupation.WOOD, 10, Occupation.METAL, 2));
+        assertTrue(buyer.Buy(other, Occupation.WOOD, 12, Occupation.METAL, 3));
+        assertFalse(buyer.Buy(other, Occupation.WOOD, 1, Occupation.METAL, 5));
+        assertEquals(5, village.getWood());
+        assertEquals(4, other.getMetal());
+
+        assertEquals(1, market.Settle());
+        village.AddListener(seller);
+        village.Day();
+        buyer.Collect(other);
+
+        assertEquals(5, village.getWood());
+        assertEquals(20, village.getMetal());
+        assertEquals(10, other.getWood());
+        assertEquals(4 + 10 + 6, other.getMetal());
+    }
+
+    @Test
+    public void market_FillsOrdersAtTheSamePriceInTheOrderTheyWerePlaced() {
+        Market market = new Market(4);
+        MarketAccount later = market.Open();
+        MarketAccount earlier = market.Open();
+        MarketAccount buyer = market.Open();
+        Village first = new Village();
+        Village second = new Village();
+        Village other = new Village();
+        first.setWood(5);
+        second.setWood(5);
+        other.setMetal(10);
+
+        assertTrue(earlier.Sell(first, Occupation.WOOD, 5, Occupation.METAL, 2));
+        assertTrue(later.Sell(second, Occupation.WOOD, 5, Occupation.METAL, 2));
+        assertTrue(buyer.Buy(other, Occupation.WOOD, 5, Occupation.METAL, 2));
+        assertEquals(1, market.Settle());
+        earlier.Collect(first);
+        later.Collect(second);
+
+        assertEquals(10, first.getMetal());
+        assertEquals(0, first.getWood());
+        assertEquals(0, second.getMetal());
+        assertEquals(5, second.getWood());
+        assertEquals(3, market.getOrdersPlaced());
+    }
+
+    @Test
+    public void market_CollectLeavesWhatDoesNotFitOwed() {
+        Village village = new Village();
+        Market market = new Market(2);
+        MarketAccount seller = market.Open();
+        MarketAccount buyer = market.Open();
+        Village other = new Village();
+        village.setWood(10);
+        village.setMetal(Integer.MAX_VALUE - 5);
+        other.setMetal(20);
+
+        assertTrue(seller.Sell(village, Occupation.WOOD, 10, Occupation.METAL, 2));
+        assertTrue(buyer.Buy(other, Occupation.WOOD, 10, Occupation.METAL, 2));
+        market.Settle();
+        seller.Collect(village);
+        assertEquals(Integer.MAX_VALUE, village.getMetal());
+
+        village.setMetal(0);
+        seller.Collect(village);
+        assertEquals(15, village.getMetal());
+    }
+}
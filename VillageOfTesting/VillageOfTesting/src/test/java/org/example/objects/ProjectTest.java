@@ -0,0 +1,22 @@
+package org.example.objects;
+
+import org.example.catalog.Catalog;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ProjectTest {
+
+    @Test
+    public void reset_TakesEverythingFromTheNewTemplate() {
+        Catalog catalog = Catalog.getDefault();
+        Project project = catalog.getProjects().get("House").GetProject();
+        PossibleProject farm = catalog.getProjects().get("Farm");
+
+        project.Reset(farm);
+
+        Building asBuilding = project;
+        assertEquals("Farm", asBuilding.getName());
+        assertEquals(farm.getDaysToComplete(), project.getDaysLeft());
+        assertEquals(farm.getEffect(), project.getEffect());
+    }
+}
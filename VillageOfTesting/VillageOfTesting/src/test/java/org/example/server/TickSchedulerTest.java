@@ -0,0 +1,299 @@
+package org.example.server;
+
+import org.example.Village;
+import org.example.interfaces.IVillageListener;
+import org.example.shard.ConsistentHashRing;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TickSchedulerTest {
+
+    private static final long PERIOD = 1000;
+
+    private final AtomicLong now = new AtomicLong();
+    private final VillageRegistry registry = new VillageRegistry();
+
+    // No dispatcher thread and a clock the test moves by hand; ticks run on the calling thread inside RunDue.
+    private TickScheduler Scheduler(long overloadLag) {
+        return new TickScheduler(Runnable::run, PERIOD, overloadLag, 10, 4, now::get, false);
+    }
+
+    private static long Phase(String id) {
+        return Math.floorMod(ConsistentHashRing.Hash(id), PERIOD);
+    }
+
+    // Turns run on the submitting thread, so a tick has finished when RunDue returns.
+    private VillageActor Actor(Village village) {
+        String id = "v" + registry.size();
+        registry.Put(id, village);
+        return new VillageActor(id, registry, Runnable::run);
+    }
+
+    private static Village Quiet() {
+        Village village = new Village();
+        village.setQuiet(true);
+        return village;
+    }
+
+    @Test
+    public void schedule_FirstTickIsOffsetByTheIdsPhase() {
+        TickScheduler scheduler = Scheduler(PERIOD);
+        Village village = Quiet();
+        long phase = Phase("alpha");
+        assertTrue(phase > 0);
+        assertNotEquals(phase, Phase("beta"));
+        scheduler.Schedule("alpha", Actor(village), TickScheduler.Priority.NORMAL);
+
+        now.set(phase - 1);
+        scheduler.RunDue();
+        assertEquals(0, village.getDaysGone());
+
+        now.set(phase);
+        scheduler.RunDue();
+        assertEquals(1, village.getDaysGone());
+
+        // Later ticks stay on the same offset grid.
+        now.set(phase + PERIOD - 1);
+        scheduler.RunDue();
+        assertEquals(1, village.getDaysGone());
+        now.set(phase + PERIOD);
+        scheduler.RunDue();
+        assertEquals(2, village.getDaysGone());
+    }
+
+    @Test
+    public void tick_CatchesUpInOneAdvanceAndCountsTheDaysBeyondTheCap() {
+        TickScheduler scheduler = Scheduler(1_000_000_000L);
+        Village village = Quiet();
+        scheduler.Schedule("alpha", Actor(village), TickScheduler.Priority.NORMAL);
+
+        // 26 ticks were due, 10 may be caught up.
+        now.set(Phase("alpha") + 25 * PERIOD);
+        scheduler.RunDue();
+
+        assertEquals(10, village.getDaysGone());
+        assertEquals(1, scheduler.getTicks());
+        assertEquals(9, scheduler.getCatchUpTicks());
+        assertEquals(16, scheduler.getSkippedTicks());
+    }
+
+    @Test
+    public void rejectedTick_IsRetriedAPeriodLaterAndOtherVillagesKeepTicking() {
+        boolean[] saturated = {true};
+        Executor executor = command -> {
+            if (saturated[0]) {
+                throw new RejectedExecutionException("Queue full");
+            }
+            command.run();
+        };
+        TickScheduler scheduler = new TickScheduler(executor, PERIOD, 1_000_000_000L, 10, 4, now::get, false);
+        Village alpha = Quiet();
+        Village beta = Quiet();
+        scheduler.Schedule("alpha", Actor(alpha), TickScheduler.Priority.NORMAL);
+        scheduler.Schedule("beta", Actor(beta), TickScheduler.Priority.NORMAL);
+
+        now.set(PERIOD);
+        scheduler.RunDue();
+        assertEquals(2, scheduler.getRejectedTicks());
+        assertEquals(2, scheduler.size());
+        assertEquals(0, alpha.getDaysGone() + beta.getDaysGone());
+
+        saturated[0] = false;
+        now.set(2 * PERIOD - 1);
+        scheduler.RunDue();
+        assertEquals("Not before a period has passed", 0, alpha.getDaysGone() + beta.getDaysGone());
+        now.set(2 * PERIOD);
+        scheduler.RunDue();
+        assertEquals(1, alpha.getDaysGone());
+        assertEquals(1, beta.getDaysGone());
+    }
+
+    @Test(timeout = 10000)
+    public void dispatcher_SurvivesAShutDownExecutor() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        pool.shutdown();
+        ExecutorService actors = Executors.newSingleThreadExecutor();
+        Village village = Quiet();
+        registry.Put("alpha", village);
+        try (TickScheduler scheduler = new TickScheduler(pool, 1, TimeUnit.MILLISECONDS)) {
+            scheduler.Schedule("alpha", new VillageActor("alpha", registry, actors), TickScheduler.Priority.NORMAL);
+            while (scheduler.getRejectedTicks() < 3) {
+                Thread.sleep(1);
+            }
+            assertEquals(1, scheduler.size());
+            assertEquals(0, village.getDaysGone());
+        } finally {
+            actors.shutdown();
+        }
+    }
+
+    @Test
+    public void tick_OnlyOneIsInFlightPerVillage() {
+        ArrayDeque<Runnable> started = new ArrayDeque<>();
+        TickScheduler scheduler = new TickScheduler(started::add, PERIOD, 1_000_000_000L, 10, 4, now::get, false);
+        Village village = Quiet();
+        scheduler.Schedule("alpha", Actor(village), TickScheduler.Priority.NORMAL);
+
+        now.set(Phase("alpha"));
+        scheduler.RunDue();
+        assertEquals(1, started.size());
+
+        // Still running: later periods don't start a second tick, the running one catches them up.
+        now.addAndGet(5 * PERIOD);
+        scheduler.RunDue();
+        assertEquals(1, started.size());
+
+        started.poll().run();
+        assertEquals(6, village.getDaysGone());
+        scheduler.RunDue();
+        assertEquals(0, started.size());
+    }
+
+    @Test
+    public void tick_IsAnActorTurnQueuedBehindEarlierCommands() {
+        TickScheduler scheduler = Scheduler(1_000_000_000L);
+        ArrayDeque<Runnable> turns = new ArrayDeque<>();
+        Village village = Quiet();
+        registry.Put("alpha", village);
+        VillageActor actor = new VillageActor("alpha", registry, turns::add);
+        scheduler.Schedule("alpha", actor, TickScheduler.Priority.NORMAL);
+
+        ArrayList<Integer> seen = new ArrayList<>();
+        actor.Submit(v -> seen.add(v.getDaysGone()));
+        now.set(Phase("alpha"));
+        scheduler.RunDue();
+        assertEquals(0, village.getDaysGone());
+        assertEquals(2, actor.getQueuedCount());
+
+        // Not re-armed until the actor has run the tick.
+        now.addAndGet(PERIOD);
+        scheduler.RunDue();
+        assertEquals(2, actor.getQueuedCount());
+
+        turns.poll().run();
+        assertEquals(1, seen.size());
+        assertEquals(0, (int) seen.get(0));
+        assertEquals(1, village.getDaysGone());
+        assertEquals(1, scheduler.getTicks());
+
+        // Re-armed for the period it missed while queued.
+        scheduler.RunDue();
+        turns.poll().run();
+        assertEquals(2, village.getDaysGone());
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    public void overload_ShedsLowVillagesAndSlowsNormalOnes() {
+        TickScheduler scheduler = Scheduler(100);
+        Village high = Quiet();
+        Village normal = Quiet();
+        Village low = Quiet();
+        scheduler.Schedule("high", Actor(high), TickScheduler.Priority.HIGH);
+        scheduler.Schedule("normal", Actor(normal), TickScheduler.Priority.NORMAL);
+        scheduler.Schedule("low", Actor(low), TickScheduler.Priority.LOW);
+
+        // Every tick starts about 100 periods late, which pushes the average lag past four times the threshold.
+        long start = 100 * PERIOD;
+        now.set(start);
+        scheduler.RunDue();
+        assertEquals(2, scheduler.getLoadLevel());
+        assertEquals(10, high.getDaysGone());
+        assertEquals(10, normal.getDaysGone());
+        assertEquals(0, low.getDaysGone());
+        long lowDue = (start - Phase("low")) / PERIOD + 1;
+        assertTrue(scheduler.getSkippedTicks() >= lowDue);
+
+        // NORMAL comes back slowFactor - 1 periods later than its grid.
+        long normalDue = (start - Phase("normal")) / PERIOD + 1;
+        long normalNext = Phase("normal") + normalDue * PERIOD;
+        now.set(normalNext);
+        scheduler.RunDue();
+        assertEquals(10, normal.getDaysGone());
+        now.set(normalNext + 3 * PERIOD);
+        scheduler.RunDue();
+        assertTrue(normal.getDaysGone() > 10);
+        assertTrue(high.getDaysGone() > 10);
+        assertEquals(0, low.getDaysGone());
+    }
+
+    @Test
+    public void gameOver_UnschedulesTheVillage() {
+        TickScheduler scheduler = Scheduler(1_000_000_000L);
+        Village village = Quiet();
+        village.AddListener(new IVillageListener() {
+            @Override
+            public void OnDayEnd(Village v) {
+                if (v.getDaysGone() == 2) {
+                    v.GameOver();
+                }
+            }
+        });
+        scheduler.Schedule("alpha", Actor(village), TickScheduler.Priority.NORMAL);
+
+        now.set(Phase("alpha"));
+        scheduler.RunDue();
+        assertEquals(1, scheduler.size());
+        now.addAndGet(PERIOD);
+        scheduler.RunDue();
+        assertEquals(2, village.getDaysGone());
+        assertEquals(0, scheduler.size());
+
+        now.addAndGet(PERIOD);
+        scheduler.RunDue();
+        assertEquals(2, village.getDaysGone());
+    }
+
+    @Test
+    public void failingTick_UnschedulesOnlyThatVillageAndIsReported() {
+        TickScheduler scheduler = Scheduler(1_000_000_000L);
+        ArrayList<String> failed = new ArrayList<>();
+        scheduler.setFailureHandler((id, failure) -> failed.add(id + ":" + failure.getMessage()));
+        Village broken = Quiet();
+        broken.AddListener(new IVillageListener() {
+            @Override
+            public void OnDayEnd(Village v) {
+                throw new IllegalStateException("boom");
+            }
+        });
+        Village healthy = Quiet();
+        scheduler.Schedule("broken", Actor(broken), TickScheduler.Priority.HIGH);
+        scheduler.Schedule("healthy", Actor(healthy), TickScheduler.Priority.HIGH);
+
+        now.set(PERIOD);
+        scheduler.RunDue();
+        assertEquals(1, scheduler.getFailedTicks());
+        assertEquals(1, failed.size());
+        assertEquals("broken:boom", failed.get(0));
+        assertEquals(1, scheduler.size());
+        assertTrue(scheduler.Report().contains("failed=1"));
+
+        now.addAndGet(PERIOD);
+        scheduler.RunDue();
+        assertEquals(1, broken.getDaysGone());
+        assertEquals(2, healthy.getDaysGone());
+        assertEquals(1, scheduler.getFailedTicks());
+    }
+
+    @Test
+    public void dispatcher_TicksOnTheWallClock() throws InterruptedException {
+        try (TickScheduler scheduler = new TickScheduler(Runnable::run, 1, TimeUnit.MILLISECONDS)) {
+            Village village = Quiet();
+            scheduler.Schedule("alpha", Actor(village), TickScheduler.Priority.HIGH);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (village.getDaysGone() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertTrue(village.getDaysGone() >= 3);
+        }
+    }
+}
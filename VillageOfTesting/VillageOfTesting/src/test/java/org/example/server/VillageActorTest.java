@@ -0,0 +1,48 @@
+package org.example.server;
+
+import org.example.Village;
+import org.example.commands.VillageCommand;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class VillageActorTest {
+
+    @Test
+    public void actor_AppliesCommandsFromManyThreadsOneAtATime() throws Exception {
+        Village village = new Village();
+        village.setQuiet(true);
+        village.AddWorkers("farmer", 6);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        VillageRegistry registry = new VillageRegistry();
+        registry.Put("village", village);
+        VillageActor actor = new VillageActor("village", registry, executor, 8);
+        List<Thread> clients = new ArrayList<>();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread client = new Thread(() -> {
+                for (int day = 0; day < 250; day++) {
+                    CompletableFuture<String> result = actor.Submit(VillageCommand.Advance(1));
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            });
+            clients.add(client);
+            client.start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get();
+        executor.shutdown();
+
+        assertEquals(1000, village.getDaysGone());
+        assertEquals(0, actor.getQueuedCount());
+    }
+}
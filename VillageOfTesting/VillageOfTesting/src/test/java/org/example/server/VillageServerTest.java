@@ -0,0 +1,164 @@
+package org.example.server;
+
+import org.example.commands.VillageCommand;
+import org.example.storage.HibernatingVillageCache;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class VillageServerTest {
+
+    private VillageRegistry registry;
+    private VillageServer server;
+    private HttpClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        registry = new VillageRegistry();
+        server = new VillageServer(0, registry);
+        server.Start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @After
+    public void tearDown() {
+        server.Stop();
+    }
+
+    @Test
+    public void api_CreatesDrivesAndDeletesAVillage() throws Exception {
+        HttpResponse<String> created = Send("POST", "/villages", null);
+        assertEquals(201, created.statusCode());
+        assertEquals("{\"id\":\"1\"}", created.body());
+
+        assertEquals("{\"hired\":2}", Send("POST", "/villages/1/workers?occupation=Farmer&count=2", null).body());
+        assertEquals("{\"hired\":1}", Send("POST", "/villages/1/workers?name=Bob&occupation=builder", null).body());
+        assertEquals("{\"advanced\":3,\"day\":3,\"gameOver\":false}", Send("POST", "/villages/1/advance?days=3", null).body());
+
+        HttpResponse<String> status = Send("GET", "/villages/1", null);
+        assertEquals(200, status.statusCode());
+        assertTrue(status.body(), status.body().contains("\"day\":3"));
+        assertTrue(status.body(), status.body().contains("\"workers\":3"));
+        assertTrue(Send("GET", "/villages/1/snapshot", null).body().contains("\"day\":3"));
+
+        HttpResponse<String> batch = Send("POST", "/villages/1/batch", "advance 1\nbogus\nstatus\n");
+        assertEquals(200, batch.statusCode());
+        assertTrue(batch.body(), batch.body().startsWith("{\"results\":[{\"advanced\":1,\"day\":4,\"gameOver\":false},{\"error\":"));
+        assertEquals(4, registry.Get("1").getDaysGone());
+
+        assertEquals(200, Send("DELETE", "/villages/1", null).statusCode());
+        assertNull(registry.Get("1"));
+        assertEquals(404, Send("GET", "/villages/1", null).statusCode());
+    }
+
+    @Test
+    public void api_RejectsBadPathsAndCounts() throws Exception {
+        Send("POST", "/villages", null);
+
+        assertEquals(404, Send("POST", "/villagesX", null).statusCode());
+        assertEquals(404, Send("GET", "/villagesX/1", null).statusCode());
+        assertEquals("Nothing was created by the bad paths", 1, registry.size());
+        assertEquals(404, Send("GET", "/villages/2", null).statusCode());
+        assertEquals(404, Send("POST", "/villages/1/dance", null).statusCode());
+        assertEquals(405, Send("GET", "/villages", null).statusCode());
+
+        assertEquals(400, Send("POST", "/villages/1/workers?occupation=farmer&count=0", null).statusCode());
+        assertEquals(400, Send("POST", "/villages/1/workers?occupation=farmer&count=-3", null).statusCode());
+        assertEquals(400, Send("POST", "/villages/1/projects?name=House&count=0", null).statusCode());
+        assertEquals(400, Send("POST", "/villages/1/advance?days=0", null).statusCode());
+        assertEquals(400, Send("POST", "/villages/1/advance?days=many", null).statusCode());
+        assertEquals(400, Send("POST", "/villages/1/workers?count=2", null).statusCode());
+        assertEquals(400, Send("POST", "/villages/1/advance?days=" + (VillageCommand.MAX_ADVANCE_DAYS + 1), null).statusCode());
+
+        // The batch endpoint applies the same limits, line by line.
+        HttpResponse<String> batch = Send("POST", "/villages/1/batch",
+                "advance 0\nworkers farmer 0\nproject House 0\nadvance " + (VillageCommand.MAX_ADVANCE_DAYS + 1) + "\n");
+        assertEquals(200, batch.statusCode());
+        assertFalse(batch.body(), batch.body().contains("\"queued\""));
+        assertFalse(batch.body(), batch.body().contains("\"hired\""));
+        assertFalse(batch.body(), batch.body().contains("\"advanced\""));
+        assertEquals(batch.body(), 4, batch.body().split("\"error\"", -1).length - 1);
+        assertEquals(0, registry.Get("1").getDaysGone());
+        assertEquals(0, registry.Get("1").getProjects().size());
+        assertEquals(0, registry.Get("1").getWorkers().size());
+        assertEquals(0, registry.Get("1").getDaysGone());
+    }
+
+    @Test(timeout = 10000)
+    public void events_StreamUntilTheVillageIsDeleted() throws Exception {
+        Send("POST", "/villages", null);
+        Send("POST", "/villages/1/workers?occupation=farmer", null);
+        HttpResponse<InputStream> stream = client.send(Request("GET", "/villages/1/events", null), HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, stream.statusCode());
+        assertEquals("text/event-stream", stream.headers().firstValue("Content-Type").orElse(""));
+
+        Send("POST", "/villages/1/advance?days=1", null);
+        try (BufferedReader events = new BufferedReader(new InputStreamReader(stream.body(), StandardCharsets.UTF_8))) {
+            assertEquals("data: {\"type\":\"RESOURCES_CHANGED\",\"day\":1,\"food\":14,\"wood\":0,\"metal\":0}", events.readLine());
+            assertEquals("", events.readLine());
+            Send("DELETE", "/villages/1", null);
+            assertNull("Deleting the village ends the stream", events.readLine());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void hibernatingRegistry_ServesVillagesAndStreamsAcrossHibernation() throws Exception {
+        Path directory = Files.createTempDirectory("hibernate");
+        try {
+            server.Stop();
+            registry = new VillageRegistry(new HibernatingVillageCache(directory, 1, Long.MAX_VALUE));
+            server = new VillageServer(0, registry);
+            server.Start();
+
+            Send("POST", "/villages", null);
+            Send("POST", "/villages/1/workers?occupation=farmer", null);
+            HttpResponse<InputStream> stream = client.send(Request("GET", "/villages/1/events", null), HttpResponse.BodyHandlers.ofInputStream());
+            // Only one village fits on the heap, so creating and driving 2 sends 1 to disk.
+            Send("POST", "/villages", null);
+            assertEquals("{\"advanced\":2,\"day\":2,\"gameOver\":false}", Send("POST", "/villages/2/advance?days=2", null).body());
+            assertTrue(Files.exists(directory.resolve("1.village")));
+
+            assertEquals("{\"advanced\":1,\"day\":1,\"gameOver\":false}", Send("POST", "/villages/1/advance?days=1", null).body());
+            try (BufferedReader events = new BufferedReader(new InputStreamReader(stream.body(), StandardCharsets.UTF_8))) {
+                assertEquals("data: {\"type\":\"RESOURCES_CHANGED\",\"day\":1,\"food\":14,\"wood\":0,\"metal\":0}", events.readLine());
+                assertEquals("", events.readLine());
+                assertTrue(Send("GET", "/villages/2/snapshot", null).body().contains("\"day\":2"));
+                Send("DELETE", "/villages/1", null);
+                assertNull(events.readLine());
+            }
+            assertEquals(404, Send("GET", "/villages/1", null).statusCode());
+            assertThrows(IllegalStateException.class, () -> registry.Get("2"));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private HttpResponse<String> Send(String method, String path, String body) throws IOException, InterruptedException {
+        return client.send(Request(method, path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest Request(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.shard;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ConsistentHashRingTest {
+
+    private static final int KEYS = 20000;
+
+    @Test
+    public void keys_SpreadEvenlyOverTheNodes() {
+        ConsistentHashRing ring = Ring(4);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int key = 0; key < KEYS; key++) {
+            counts.merge(ring.Owner(Integer.toString(key)), 1, Integer::sum);
+        }
+        assertEquals(4, counts.size());
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            // A quarter each, give or take what 64 points per node allow.
+            assertTrue(count.toString(), count.getValue() > KEYS * 0.15 && count.getValue() < KEYS * 0.35);
+        }
+    }
+
+    @Test
+    public void addingANode_OnlyMovesKeysToIt() {
+        ConsistentHashRing ring = Ring(4);
+        Map<String, String> before = Owners(ring);
+        ring.Add("node-5");
+
+        int moved = 0;
+        for (int key = 0; key < KEYS; key++) {
+            String owner = ring.Owner(Integer.toString(key));
+            if (!owner.equals(before.get(Integer.toString(key)))) {
+                assertEquals("node-5", owner);
+                moved++;
+            }
+        }
+        // About a fifth of the keys, not a reshuffle.
+        assertTrue("moved " + moved, moved > KEYS * 0.1 && moved < KEYS * 0.3);
+    }
+
+    @Test
+    public void removingANode_OnlyMovesItsKeys() {
+        ConsistentHashRing ring = Ring(4);
+        Map<String, String> before = Owners(ring);
+        ring.Remove("node-2");
+
+        for (int key = 0; key < KEYS; key++) {
+            String id = Integer.toString(key);
+            if (before.get(id).equals("node-2")) {
+                assertNotEquals("node-2", ring.Owner(id));
+            }
+            else {
+                assertEquals(before.get(id), ring.Owner(id));
+            }
+        }
+
+        ring.Add("node-2");
+        assertEquals("Putting the node back restores every owner", before, Owners(ring));
+    }
+
+    private static ConsistentHashRing Ring(int nodes) {
+        ConsistentHashRing ring = new ConsistentHashRing(64);
+        for (int node = 1; node <= nodes; node++) {
+            ring.Add("node-" + node);
+        }
+        return ring;
+    }
+
+    private static Map<String, String> Owners(ConsistentHashRing ring) {
+        Map<String, String> owners = new HashMap<>();
+        for (int key = 0; key < KEYS; key++) {
+            owners.put(Integer.toString(key), ring.Owner(Integer.toString(key)));
+        }
+        return owners;
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.shard;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class ShardCoordinatorTest {
+
+    private ShardCoordinator coordinator;
+    private final List<String> ids = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        coordinator = new ShardCoordinator();
+        coordinator.AddRemoteWorker(Start(new ShardWorker(0)));
+        for (int i = 0; i < 40; i++) {
+            String id = coordinator.Create();
+            coordinator.Send(id, "workers farmer 1");
+            coordinator.Send(id, "advance " + (i % 5 + 1));
+            ids.add(id);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        coordinator.close();
+    }
+
+    @Test
+    public void addingAndRemovingWorkers_MovesVillagesWithTheirState() throws IOException {
+        String second = coordinator.AddRemoteWorker(Start(new ShardWorker(0)));
+        String third = coordinator.AddRemoteWorker(Start(new ShardWorker(0)));
+        Map<String, Integer> spread = coordinator.getVillagesPerShard();
+        assertEquals(3, spread.size());
+        assertEquals(ids.size(), Total(spread));
+        assertTrue("Both new workers took a share " + spread, spread.get(second) > 0 && spread.get(third) > 0);
+        AssertDaysKept();
+
+        coordinator.RemoveWorker(second);
+        spread = coordinator.getVillagesPerShard();
+        assertFalse(spread.containsKey(second));
+        assertEquals(ids.size(), Total(spread));
+        AssertDaysKept();
+    }
+
+    @Test
+    public void failedImport_LeavesEveryVillageWhereItWas() throws IOException {
+        FailingWorker failing = new FailingWorker();
+        failing.failImports = true;
+        try {
+            coordinator.AddRemoteWorker(Start(failing));
+            fail("The new worker cannot import villages");
+        } catch (IllegalArgumentException expected) {
+            // The worker's ERR response.
+        }
+        assertEquals(Map.of("shard-1", ids.size()), coordinator.getVillagesPerShard());
+        AssertDaysKept();
+
+        FailingWorker later = new FailingWorker();
+        String name = coordinator.AddRemoteWorker(Start(later));
+        later.failImports = true;
+        try {
+            coordinator.RemoveWorker("shard-1");
+            fail("The remaining worker cannot take the villages");
+        } catch (IllegalArgumentException expected) {
+            // The worker's ERR response.
+        }
+        Map<String, Integer> spread = coordinator.getVillagesPerShard();
+        assertEquals(2, spread.size());
+        assertEquals("No village lost or copied twice " + spread + " " + name, ids.size(), Total(spread));
+        AssertDaysKept();
+    }
+
+    @Test
+    public void deadWorker_IsDroppedAndItsVillagesComeBackFromTheCheckpoint() throws IOException {
+        FailingWorker crashing = new FailingWorker();
+        String second = coordinator.AddRemoteWorker(Start(crashing));
+        int share = coordinator.getVillagesPerShard().get(second);
+        assertTrue(share > 0);
+        assertEquals(ids.size(), coordinator.Checkpoint());
+        for (String id : ids) {
+            coordinator.Send(id, "advance 1");
+        }
+
+        crashing.crashed = true;
+        assertThrows(RuntimeException.class, () -> coordinator.RemoveWorker(second));
+        assertEquals(List.of(), coordinator.DropWorker(second));
+
+        assertEquals(Map.of("shard-1", ids.size()), coordinator.getVillagesPerShard());
+        int restored = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            String status = coordinator.Send(ids.get(i), "status");
+            if (status.contains("\"day\":" + (i % 5 + 1) + ",")) {
+                restored++;
+            } else {
+                assertTrue(status, status.contains("\"day\":" + (i % 5 + 2) + ","));
+            }
+        }
+        assertEquals("The dead worker's villages are back as of the checkpoint", share, restored);
+    }
+
+    @Test
+    public void deadWorker_WithoutACheckpointLosesOnlyItsOwnVillages() throws IOException {
+        FailingWorker crashing = new FailingWorker();
+        String second = coordinator.AddRemoteWorker(Start(crashing));
+        int share = coordinator.getVillagesPerShard().get(second);
+        crashing.crashed = true;
+
+        List<String> lost = coordinator.DropWorker(second);
+
+        assertEquals(share, lost.size());
+        assertEquals(Map.of("shard-1", ids.size() - share), coordinator.getVillagesPerShard());
+        assertThrows(IllegalArgumentException.class, () -> coordinator.Send(lost.get(0), "status"));
+    }
+
+    // Village i was advanced i % 5 + 1 days and must still be, wherever it lives now.
+    private void AssertDaysKept() {
+        for (int i = 0; i < ids.size(); i++) {
+            String status = coordinator.Send(ids.get(i), "status");
+            assertTrue(status, status.contains("\"day\":" + (i % 5 + 1) + ","));
+        }
+    }
+
+    private static int Total(Map<String, Integer> spread) {
+        int total = 0;
+        for (int count : spread.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    private static int Start(ShardWorker worker) {
+        Thread thread = new Thread(() -> {
+            try {
+                worker.Serve();
+            } catch (IOException e) {
+                // Shut down.
+            }
+        }, "test-shard");
+        thread.setDaemon(true);
+        thread.start();
+        return worker.getPort();
+    }
+
+    private static class FailingWorker extends ShardWorker {
+        volatile boolean failImports;
+        // Makes the connection thread die without answering, as if the process had crashed.
+        volatile boolean crashed;
+
+        FailingWorker() throws IOException {
+            super(0);
+        }
+
+        @Override
+        String Handle(String line) {
+            if (crashed) {
+                throw new Crash();
+            }
+            if (failImports && line.startsWith("import ")) {
+                throw new IllegalArgumentException("Disk full");
+            }
+            return super.Handle(line);
+        }
+    }
+
+    // An Error, so the worker does not turn it into an ERR response. No stack trace, as it is expected.
+    private static class Crash extends Error {
+        Crash() {
+            super("Crashed", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package org.example.storage;
+
+import org.example.Village;
+import org.example.VillageHistory;
+import org.example.objects.Worker;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class HibernatingVillageCacheTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("hibernate");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static Village Quiet(int days) {
+        Village village = new Village();
+        village.setQuiet(true);
+        village.Advance(days);
+        return village;
+    }
+
+    private boolean OnDisk(String id) {
+        return Files.exists(directory.resolve(id + ".village"));
+    }
+
+    @Test
+    public void put_HibernatesTheLeastRecentlyUsedVillage() throws IOException {
+        HibernatingVillageCache cache = new HibernatingVillageCache(directory, 2, Long.MAX_VALUE);
+        cache.Put("a", Quiet(1));
+        cache.Put("b", Quiet(2));
+        // Using a makes b the eldest.
+        cache.With("a", Village::getDaysGone);
+        cache.Put("c", Quiet(3));
+
+        assertEquals(2, cache.getResidentCount());
+        assertEquals(1, cache.getHibernations());
+        assertTrue(OnDisk("b"));
+        assertFalse(OnDisk("a"));
+        assertFalse(OnDisk("c"));
+        assertTrue(cache.Contains("b"));
+    }
+
+    @Test
+    public void put_HibernatesUntilTheWorkerLimitHolds() throws IOException {
+        // A village weighs one plus its workers.
+        HibernatingVillageCache cache = new HibernatingVillageCache(directory, 100, 10);
+        Village small = Quiet(0);
+        small.AddWorker("Amber", "farmer");
+        cache.Put("small", small);
+        Village big = Quiet(0);
+        big.setMaxWorkers(100);
+        big.AddWorkers("farmer", 7);
+        cache.Put("big", big);
+        assertEquals(2, cache.getResidentCount());
+
+        cache.With("big", village -> village.AddWorker("Bo", "farmer"));
+
+        assertEquals(1, cache.getResidentCount());
+        assertTrue(OnDisk("small"));
+    }
+
+    @Test
+    public void with_PinsTheVillageSoItIsNotHibernatedWhileInUse() throws IOException {
+        HibernatingVillageCache cache = new HibernatingVillageCache(directory, 1, Long.MAX_VALUE);
+        cache.Put("a", Quiet(1));
+
+        cache.With("a", village -> {
+            cache.Put("b", Quiet(2));
+            assertFalse(OnDisk("a"));
+            assertTrue(OnDisk("b"));
+            village.Advance(1);
+            return null;
+        });
+
+        // Unpinned and least recently used once b is back.
+        assertEquals(3, (int) cache.With("b", village -> {
+            village.Advance(1);
+            return village.getDaysGone();
+        }));
+        assertTrue(OnDisk("a"));
+        assertEquals(2, (int) cache.With("a", Village::getDaysGone));
+    }
+
+    @Test
+    public void hibernatedVillage_ComesBackAsItWasLeft() throws IOException {
+        HibernatingVillageCache cache = new HibernatingVillageCache(directory, 1, Long.MAX_VALUE);
+        List<String> rehydrated = new ArrayList<>();
+        cache.setOnRehydrate((id, village) -> rehydrated.add(id + ":" + village.getDaysGone()));
+        Village saved = Quiet(0);
+        saved.AddWorker("Amber", "farmer");
+        saved.AddWorker("Bo", "builder");
+        saved.setWood(7);
+        saved.AddProject("House");
+        saved.Advance(4);
+        int food = saved.getFood();
+        int wood = saved.getWood();
+        cache.Put("town", saved);
+        cache.Put("other", Quiet(0));
+        assertTrue(OnDisk("town"));
+
+        cache.With("town", village -> {
+            assertNotSame(saved, village);
+            assertTrue(village.isQuiet());
+            assertEquals(4, village.getDaysGone());
+            assertEquals(food, village.getFood());
+            assertEquals(wood, village.getWood());
+            assertEquals(2, village.getWorkers().size());
+            assertEquals(saved.getProjects().size(), village.getProjects().size());
+            return null;
+        });
+
+        assertEquals(1, cache.getRehydrations());
+        assertEquals(List.of("town:4"), rehydrated);
+        assertFalse(OnDisk("town"));
+        assertTrue(OnDisk("other"));
+    }
+
+    @Test
+    public void hibernatedVillage_KeepsItsHistoryAndRenamedWorkers() throws IOException {
+        HibernatingVillageCache cache = new HibernatingVillageCache(directory, 1, Long.MAX_VALUE);
+        Village saved = Quiet(0);
+        saved.AddWorkers("farmer", 3);
+        saved.getWorkers().get(1).setName("Amber");
+        // Long enough for the recent days to wrap and fold into buckets.
+        saved.Advance(300);
+        VillageHistory history = saved.getHistory();
+        List<String> names = new ArrayList<>();
+        for (Worker worker : saved.getWorkers()) {
+            names.add(worker.getName());
+        }
+        cache.Put("town", saved);
+        cache.Put("other", Quiet(0));
+        assertTrue(OnDisk("town"));
+
+        cache.With("town", village -> {
+            VillageHistory back = village.getHistory();
+            assertEquals(history.getRecordedDays(), back.getRecordedDays());
+            assertEquals(history.getRecentCount(), back.getRecentCount());
+            for (int i = 0; i < history.getRecentCount(); i++) {
+                assertEquals(history.getRecentDay(i), back.getRecentDay(i));
+                assertEquals(history.getRecent(i, VillageHistory.FOOD), back.getRecent(i, VillageHistory.FOOD));
+            }
+            assertEquals(history.getBucketCount(), back.getBucketCount());
+            for (int i = 0; i < history.getBucketCount(); i++) {
+                assertEquals(history.getBucketFirstDay(i), back.getBucketFirstDay(i));
+                assertEquals(history.getBucketMax(i, VillageHistory.ALIVE), back.getBucketMax(i, VillageHistory.ALIVE));
+                assertEquals(history.getBucketAverage(i, VillageHistory.FOOD), back.getBucketAverage(i, VillageHistory.FOOD), 0);
+            }
+            List<String> namesBack = new ArrayList<>();
+            for (Worker worker : village.getWorkers()) {
+                namesBack.add(worker.getName());
+            }
+            assertEquals(names, namesBack);
+            assertEquals("Amber", namesBack.get(1));
+
+            // The history carries on where it left off.
+            village.Day();
+            assertEquals(history.getRecordedDays() + 1, back.getRecordedDays());
+            assertEquals(301, back.getRecentDay(back.getRecentCount() - 1));
+            return null;
+        });
+    }
+
+    @Test
+    public void hibernateFailure_KeepsTheVillageAndDoesNotFailTheCaller() throws IOException {
+        HibernatingVillageCache cache = new HibernatingVillageCache(directory, 1, Long.MAX_VALUE);
+        List<String> failures = new ArrayList<>();
+        cache.setFailureHandler((id, error) -> failures.add(id));
+        // A directory in the way of the temporary file makes every write of a fail.
+        Files.createDirectory(directory.resolve("a.village.tmp"));
+        cache.Put("a", Quiet(1));
+        cache.Put("b", Quiet(2));
+
+        assertEquals(3, (int) cache.With("b", village -> {
+            village.Advance(1);
+            return village.getDaysGone();
+        }));
+
+        assertEquals(List.of("a", "a"), failures);
+        assertEquals(2, cache.getHibernateFailures());
+        assertEquals(0, cache.getHibernations());
+        assertFalse(OnDisk("a"));
+        assertEquals(1, (int) cache.With("a", Village::getDaysGone));
+    }
+
+    @Test
+    public void remove_ForgetsResidentAndHibernatedVillages() throws IOException {
+        HibernatingVillageCache cache = new HibernatingVillageCache(directory, 1, Long.MAX_VALUE);
+        cache.Put("a", Quiet(0));
+        cache.Put("b", Quiet(0));
+        cache.Remove("a");
+        cache.Remove("b");
+
+        assertFalse(cache.Contains("a"));
+        assertFalse(cache.Contains("b"));
+        assertFalse(OnDisk("a"));
+        assertEquals(0, cache.getResidentCount());
+        assertThrows(IllegalArgumentException.class, () -> cache.With("a", Village::getDaysGone));
+    }
+
+    @Test
+    public void with_FromManyThreadsLosesNoDays() throws Exception {
+        HibernatingVillageCache cache = new HibernatingVillageCache(directory, 3, Long.MAX_VALUE);
+        for (int i = 0; i < 10; i++) {
+            cache.Put("v" + i, Quiet(0));
+        }
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    cache.With("v" + (i + offset) % 10, village -> {
+                        // Two threads can hold the same village; like the server, callers serialize their own use.
+                        synchronized (village) {
+                            return village.Advance(1);
+                        }
+                    });
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        int days = 0;
+        for (int i = 0; i < 10; i++) {
+            days += cache.With("v" + i, Village::getDaysGone);
+        }
+        assertEquals(800, days);
+        assertTrue(cache.getHibernations() > 0);
+        assertTrue(cache.getRehydrations() > 0);
+    }
+}
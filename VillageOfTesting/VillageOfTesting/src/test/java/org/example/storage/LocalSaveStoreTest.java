@@ -0,0 +1,47 @@
+package org.example.storage;
+
+import org.example.Village;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LocalSaveStoreTest {
+
+    @Test
+    public void localSaveStore_SavesAndLoadsVillagesInParallel() throws Exception {
+        Path directory = Files.createTempDirectory("saves");
+        LocalSaveStore store = new LocalSaveStore(directory);
+        AtomicInteger roundTrips = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String name = "Town " + i;
+            int days = i;
+            Thread thread = new Thread(() -> {
+                Village saved = new Village();
+                saved.setQuiet(true);
+                saved.AddWorker("Amber", "farmer");
+                saved.Advance(days);
+                for (int round = 0; round < 20; round++) {
+                    if (store.SaveVillage(saved, name) && store.LoadVillage(name).getDaysGone() == days) {
+                        roundTrips.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(160, roundTrips.get());
+        assertEquals(8, store.GetTownNames().size());
+        assertEquals(5, store.LoadVillage("Town 5").getDaysGone());
+        assertNull(store.LoadVillage("Nowhere"));
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.storage;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class SaveIndexTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("index");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void reopen_ReplaysTheJournalAndCompactsIt() throws IOException {
+        try (SaveIndex index = SaveIndex.Open(directory)) {
+            assertTrue(index.isNew());
+            index.Add("Ashby");
+            index.Add("Brook");
+            index.Add("Crest");
+            index.Remove("Brook");
+            index.Add("Ashby");
+        }
+        Path file = directory.resolve(SaveIndex.FILE_NAME);
+        assertEquals(List.of("+Ashby", "+Brook", "+Crest", "-Brook"), Files.readAllLines(file, StandardCharsets.UTF_8));
+
+        try (SaveIndex index = SaveIndex.Open(directory)) {
+            assertFalse(index.isNew());
+            assertEquals(2, index.size());
+            assertTrue(index.Contains("Ashby"));
+            assertFalse(index.Contains("Brook"));
+            assertTrue(index.Contains("Crest"));
+            assertEquals(List.of("+Ashby", "+Crest"), Files.readAllLines(file, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void search_ReturnsNamesWithThePrefixInOrderUpToTheLimit() {
+        try (SaveIndex index = SaveIndex.Open(directory)) {
+            index.AddAll(List.of("Apricot", "Banana", "Ap", "Apple", "Aq"));
+
+            assertEquals(List.of("Ap", "Apple", "Apricot"), index.Search("Ap", 10));
+            assertEquals(List.of("Ap", "Apple"), index.Search("Ap", 2));
+            assertEquals(List.of("Banana"), index.Search("B", 10));
+            assertEquals(List.of(), index.Search("Z", 10));
+        }
+    }
+
+    @Test
+    public void listAfter_PagesThroughEveryNameOnce() {
+        try (SaveIndex index = SaveIndex.Open(directory)) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 45; i++) {
+                String name = String.format("Town %02d", i);
+                expected.add(name);
+                index.Add(name);
+            }
+
+            List<String> seen = new ArrayList<>();
+            List<Integer> sizes = new ArrayList<>();
+            String after = null;
+            List<String> page;
+            while (!(page = index.ListAfter(after, 20)).isEmpty()) {
+                sizes.add(page.size());
+                seen.addAll(page);
+                after = page.get(page.size() - 1);
+            }
+
+            assertEquals(List.of(20, 20, 5), sizes);
+            assertEquals(expected, seen);
+        }
+    }
+
+    @Test
+    public void close_RefusesChangesButKeepsLookups() {
+        SaveIndex index = SaveIndex.Open(directory);
+        index.Add("Ashby");
+        index.close();
+        index.close();
+
+        assertThrows(IllegalStateException.class, () -> index.Add("Brook"));
+        assertThrows(IllegalStateException.class, () -> index.Remove("Ashby"));
+        assertTrue(index.Contains("Ashby"));
+        assertFalse(index.Contains("Brook"));
+    }
+
+    @Test
+    public void add_RejectsNamesThatWouldBreakTheJournal() {
+        try (SaveIndex index = SaveIndex.Open(directory)) {
+            assertThrows(IllegalArgumentException.class, () -> index.Add(""));
+            assertThrows(IllegalArgumentException.class, () -> index.Add("Two\nLines"));
+            assertEquals(0, index.size());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.storage;
+
+import org.example.Village;
+import org.example.catalog.Catalog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class SnapshotChainTest {
+
+    private Path directory;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("chain");
+        file = directory.resolve("town.chain");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    // Names that don't compress keep the base big, so a few days of deltas stay under half of it.
+    private static Village Town() {
+        Village village = new Village();
+        village.setQuiet(true);
+        village.setMaxWorkers(100);
+        Random random = new Random(42);
+        for (int i = 0; i < 60; i++) {
+            village.AddWorker(Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()), "farmer");
+        }
+        village.AddWorker("Amber", "builder");
+        village.setWood(10);
+        village.AddProject("House");
+        return village;
+    }
+
+    private static Village Load(Path file) {
+        return new SnapshotChain(file).Load(Catalog.getDefault());
+    }
+
+    @Test
+    public void save_AppendsDeltasThatLoadBackToTheLatestState() {
+        Village village = Town();
+        SnapshotChain chain = new SnapshotChain(file);
+        for (int day = 0; day < 5; day++) {
+            chain.Save(village);
+            village.Day();
+        }
+        chain.Save(village);
+
+        assertEquals(5, chain.getDeltaCount());
+        SnapshotChain reopened = new SnapshotChain(file);
+        Village loaded = reopened.Load(Catalog.getDefault());
+        assertEquals(5, reopened.getDeltaCount());
+        assertEquals(village.getDaysGone(), loaded.getDaysGone());
+        assertEquals(village.getFood(), loaded.getFood());
+        assertEquals(village.getWood(), loaded.getWood());
+        assertEquals(village.getWorkers().size(), loaded.getWorkers().size());
+        assertEquals(village.getProjects().size(), loaded.getProjects().size());
+        assertEquals(village.getBuildings().size(), loaded.getBuildings().size());
+    }
+
+    @Test
+    public void save_StartsANewBaseAfterMaxDeltasAndCompactKeepsTheState() throws IOException {
+        Village village = Town();
+        SnapshotChain chain = new SnapshotChain(file, 3);
+        for (int day = 0; day < 4; day++) {
+            chain.Save(village);
+            village.Day();
+        }
+        assertEquals(3, chain.getDeltaCount());
+        chain.Save(village);
+        assertEquals(0, chain.getDeltaCount());
+
+        village.Day();
+        chain.Save(village);
+        village.Day();
+        chain.Save(village);
+        long chained = Files.size(file);
+        chain.Compact();
+
+        assertEquals(0, chain.getDeltaCount());
+        assertTrue(Files.size(file) < chained);
+        assertEquals(village.getDaysGone(), Load(file).getDaysGone());
+    }
+
+    @Test
+    public void save_AfterATornRecordCutsItOffSoLaterSavesAreKept() throws IOException {
+        Village village = Town();
+        SnapshotChain chain = new SnapshotChain(file);
+        for (int wood = 1; wood <= 3; wood++) {
+            village.setWood(wood);
+            chain.Save(village);
+        }
+        // A crash halfway through the last append.
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        assertEquals(2, Load(file).getWood());
+
+        SnapshotChain restarted = new SnapshotChain(file);
+        village.setWood(9);
+        restarted.Save(village);
+        assertEquals(9, Load(file).getWood());
+
+        // Garbage after the last record is dropped the same way.
+        Files.write(file, new byte[] {1, 0, 0, 0, 5, 7, 7, 7, 7, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+        assertEquals(9, Load(file).getWood());
+        SnapshotChain again = new SnapshotChain(file);
+        village.setWood(11);
+        again.Save(village);
+        village.setWood(12);
+        again.Save(village);
+        assertEquals(12, Load(file).getWood());
+        // The deltas for 2 and 9, then 11 and 12.
+        assertEquals(4, again.getDeltaCount());
+    }
+
+    @Test(timeout = 10000)
+    public void load_DoesNotWaitForTheChainsLock() throws Exception {
+        Village village = Town();
+        SnapshotChain chain = new SnapshotChain(file);
+        chain.Save(village);
+        village.Day();
+        chain.Save(village);
+
+        int[] days = new int[1];
+        Thread reader = new Thread(() -> days[0] = chain.Load(Catalog.getDefault()).getDaysGone());
+        // A save in progress holds the chain's monitor.
+        synchronized (chain) {
+            reader.start();
+            reader.join(5000);
+            assertFalse("The load waited for the monitor", reader.isAlive());
+        }
+        assertEquals(1, days[0]);
+    }
+
+    @Test
+    public void incrementalSaveStore_SavesLoadsAndDeletesChains() {
+        LocalSaveStore store = new LocalSaveStore(directory, Catalog.getDefault(), 4, true);
+        Village village = Town();
+        assertTrue(store.SaveVillage(village, "Ashby"));
+        village.Day();
+        assertTrue(store.SaveVillage(village, "Ashby"));
+
+        assertTrue(Files.exists(directory.resolve("Ashby.chain")));
+        assertEquals(List.of("Ashby"), store.GetTownNames());
+        assertEquals(1, store.LoadVillage("Ashby").getDaysGone());
+        assertEquals(1, new LocalSaveStore(directory, Catalog.getDefault(), 4, true).LoadVillage("Ashby").getDaysGone());
+        assertNull(store.LoadVillage("Nowhere"));
+
+        assertTrue(store.Delete("Ashby"));
+        assertNull(store.LoadVillage("Ashby"));
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.storage;
+
+import org.example.Village;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class VillageCodecTest {
+
+    @Test
+    public void codec_RoundTripsVillageState() {
+        Village village = new Village();
+        village.setQuiet(true);
+        village.AddWorker("Amber", "farmer");
+        village.AddWorkers("builder", 2);
+        village.setWood(10);
+        village.setMetal(1);
+        village.AddProject("Woodmill");
+        village.Advance(2);
+
+        Village copy = VillageCodec.Decode(VillageCodec.Encode(village));
+
+        assertEquals(village.getDaysGone(), copy.getDaysGone());
+        assertEquals(village.getFood(), copy.getFood());
+        assertEquals(village.getWood(), copy.getWood());
+        assertEquals(3, copy.getWorkers().size());
+        assertEquals("Amber", copy.getWorkers().get(0).getName());
+        assertEquals("Builder 3", copy.getWorkers().get(2).getName());
+        assertEquals(village.getProjects().get(0).getDaysLeft(), copy.getProjects().get(0).getDaysLeft());
+        assertArrayEquals(VillageCodec.Encode(village), VillageCodec.Encode(copy));
+    }
+}
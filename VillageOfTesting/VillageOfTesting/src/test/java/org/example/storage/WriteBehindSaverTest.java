@@ -0,0 +1,139 @@
+package org.example.storage;
+
+import org.example.DatabaseConnection;
+import org.example.Village;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class WriteBehindSaverTest {
+
+    // Records "name:day" for every write and can hold the writer inside a save until released.
+    private static class RecordingDatabase extends DatabaseConnection {
+        final List<String> writes = new ArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release;
+
+        RecordingDatabase(boolean blockFirstSave) {
+            release = new CountDownLatch(blockFirstSave ? 1 : 0);
+        }
+
+        @Override
+        public boolean SaveVillage(Village village, String choice) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            if (choice.equals("broken")) {
+                throw new IllegalStateException("disk full");
+            }
+            synchronized (writes) {
+                writes.add(choice + ":" + village.getDaysGone());
+            }
+            return true;
+        }
+    }
+
+    private static Village Quiet(int days) {
+        Village village = new Village();
+        village.setQuiet(true);
+        village.Advance(days);
+        return village;
+    }
+
+    @Test(timeout = 10000)
+    public void save_CoalescesSavesOfOneVillageIntoTheNewestImage() throws Exception {
+        RecordingDatabase database = new RecordingDatabase(true);
+        WriteBehindSaver saver = new WriteBehindSaver(database);
+        CompletableFuture<Boolean> first = saver.Save(Quiet(0), "a");
+        // The writer is now stuck in a's save, so the three saves of b wait together.
+        database.entered.await();
+        Village village = Quiet(0);
+        List<CompletableFuture<Boolean>> saves = new ArrayList<>();
+        for (int day = 1; day <= 3; day++) {
+            village.Day();
+            saves.add(saver.Save(village, "b"));
+        }
+        assertEquals(1, saver.getPendingCount());
+        assertSame(saves.get(0), saves.get(2));
+
+        database.release.countDown();
+        saver.Flush();
+
+        assertEquals(List.of("a:0", "b:3"), database.writes);
+        assertTrue(first.get());
+        assertTrue(saves.get(0).get());
+        saver.close();
+    }
+
+    @Test(timeout = 10000)
+    public void flush_WaitsForTheSaveBeingWritten() throws Exception {
+        RecordingDatabase database = new RecordingDatabase(true);
+        WriteBehindSaver saver = new WriteBehindSaver(database);
+        saver.Save(Quiet(2), "a");
+        database.entered.await();
+        assertEquals("Taken by the writer", 0, saver.getPendingCount());
+
+        Thread flusher = new Thread(() -> {
+            try {
+                saver.Flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        flusher.start();
+        flusher.join(200);
+        assertTrue(flusher.isAlive());
+
+        database.release.countDown();
+        flusher.join();
+        assertEquals(List.of("a:2"), database.writes);
+        saver.close();
+    }
+
+    @Test(timeout = 10000)
+    public void close_DrainsPendingSavesAndRefusesNewOnes() throws Exception {
+        RecordingDatabase database = new RecordingDatabase(true);
+        WriteBehindSaver saver = new WriteBehindSaver(database);
+        saver.Save(Quiet(1), "a");
+        database.entered.await();
+        CompletableFuture<Boolean> b = saver.Save(Quiet(2), "b");
+        CompletableFuture<Boolean> c = saver.Save(Quiet(3), "c");
+
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            database.release.countDown();
+        }).start();
+        saver.close();
+
+        assertEquals(List.of("a:1", "b:2", "c:3"), database.writes);
+        assertTrue(b.isDone() && c.isDone());
+        assertThrows(IllegalStateException.class, () -> saver.Save(Quiet(0), "d"));
+    }
+
+    @Test(timeout = 10000)
+    public void save_ThatThrowsCompletesExceptionallyAndTheWriterCarriesOn() throws Exception {
+        RecordingDatabase database = new RecordingDatabase(false);
+        WriteBehindSaver saver = new WriteBehindSaver(database);
+        CompletableFuture<Boolean> broken = saver.Save(Quiet(0), "broken");
+        CompletableFuture<Boolean> fine = saver.Save(Quiet(1), "fine");
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> broken.get(5, TimeUnit.SECONDS));
+        assertEquals("disk full", error.getCause().getMessage());
+        assertTrue(fine.get(5, TimeUnit.SECONDS));
+        saver.close();
+        assertEquals(List.of("fine:1"), database.writes);
+    }
+}
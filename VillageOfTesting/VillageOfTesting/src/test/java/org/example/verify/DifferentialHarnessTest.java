@@ -0,0 +1,14 @@
+package org.example.verify;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DifferentialHarnessTest {
+
+    @Test
+    public void differentialHarness_VillageMatchesReference() {
+        DifferentialHarness harness = new DifferentialHarness(VillageEngine::new, 150);
+        DifferentialHarness.Divergence divergence = harness.Run(1, 300);
+        assertNull(String.valueOf(divergence), divergence);
+    }
+}